@@ -19,6 +19,7 @@ val wynntilsVersion by extra { "3.0.10" }
 val owoLibVersion by extra { "0.12.20+1.21.4" }
 val webSocketVersion by extra { "1.5.7" }
 val devAuthVersion by extra { "1.2.1" }
+val jmhVersion by extra { "1.37" }
 
 plugins {
     id("java")
@@ -28,6 +28,7 @@ val wynntils = {
 }
 val owoLibVersion: String by rootProject.extra
 val webSocketVersion: String by rootProject.extra
+val jmhVersion: String by rootProject.extra
 
 plugins {
     id("java")
@@ -40,6 +41,12 @@ repositories {
     maven("https://maven.wispforest.io")
 }
 
+// Benchmarks live in src/jmh. Run them with `gradlew :common:jmh`, optionally filtered by `-Pjmh.includes=<regex>`
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+    runtimeClasspath += sourceSets.main.get().output + sourceSets.main.get().runtimeClasspath
+}
+
 dependencies {
     minecraft(group = "com.mojang", name = "minecraft", version = minecraftVersion)
     mappings(loom.layered() {
@@ -63,6 +70,11 @@ dependencies {
     annotationProcessor("io.wispforest:owo-lib:${owoLibVersion}")
 
     compileOnly("net.neoforged:bus:${neoForgeEventBusVersion}")
+
+    annotationProcessor(project(":processor"))
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 }
 
 val usingHotswapAgent = project.hasProperty("sequoia.hotswap") &&
@@ -102,6 +114,12 @@ tasks {
     jar {
         from(rootDir.resolve("LICENSE.md"))
     }
+
+    register<JavaExec>("jmh") {
+        classpath = jmh.runtimeClasspath
+        mainClass.set("org.openjdk.jmh.Main")
+        args = providers.gradleProperty("jmh.includes").map { listOf(it) }.getOrElse(listOf())
+    }
 }
 
 // Hides common tasks in the IDEA list
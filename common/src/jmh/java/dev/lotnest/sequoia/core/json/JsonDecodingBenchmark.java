@@ -0,0 +1,203 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import dev.lotnest.sequoia.core.ws.handler.WSMessageDispatcher;
+import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import dev.lotnest.sequoia.services.wynn.guild.GuildResponse;
+import dev.lotnest.sequoia.services.wynn.item.ItemResponse;
+import dev.lotnest.sequoia.services.wynn.item.ItemsResponse;
+import dev.lotnest.sequoia.services.wynn.player.PlayerResponse;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares decoding through the generated type adapters of {@link JsonConstants#GSON} with Gson's reflective adapters,
+ * on bodies shaped like the ones the mod receives. WebSocket messages go through the {@link WSMessageDispatcher}, the
+ * way received messages do, up to the point where their handling would be handed to the client thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonDecodingBenchmark {
+    private static final Gson REFLECTIVE_GSON = new GsonBuilder()
+            .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeAdapter())
+            .registerTypeAdapter(ItemsResponse.class, new ItemsResponseAdapter())
+            .registerTypeAdapter(ItemResponse.Icon.class, new ItemResponseIconAdapter())
+            .registerTypeAdapter(
+                    new TypeToken<Map<String, ItemResponse.Identification>>() {}.getType(),
+                    new ItemResponseIdentificationAdapter())
+            .create();
+    private static final List<String> PROFESSIONS = List.of(
+            "fishing",
+            "woodcutting",
+            "mining",
+            "farming",
+            "scribing",
+            "jeweling",
+            "alchemism",
+            "cooking",
+            "weaponsmithing",
+            "tailoring",
+            "woodworking",
+            "armouring");
+
+    @Param({"reflective", "generated"})
+    private String adapters;
+
+    private Gson gson;
+    private WSMessageDispatcher dispatcher;
+    private Runnable dispatchedHandling;
+    private String playerJson;
+    private String guildJson;
+    private String wsMessageJson;
+
+    @Setup
+    public void setUp() {
+        gson = adapters.equals("generated") ? JsonConstants.GSON : REFLECTIVE_GSON;
+        dispatcher = new WSMessageDispatcher(gson, (wsMessageType, handling) -> dispatchedHandling = handling);
+        playerJson = createPlayer().toString();
+        guildJson = createGuild().toString();
+        wsMessageJson = createWSMessage().toString();
+    }
+
+    @Benchmark
+    public PlayerResponse decodePlayer() {
+        return gson.fromJson(playerJson, PlayerResponse.class);
+    }
+
+    @Benchmark
+    public GuildResponse decodeGuild() {
+        return gson.fromJson(guildJson, GuildResponse.class);
+    }
+
+    @Benchmark
+    public Runnable decodeWSMessage() throws IOException {
+        dispatcher.dispatch(wsMessageJson);
+        return dispatchedHandling;
+    }
+
+    private static JsonObject createPlayer() {
+        JsonObject player = new JsonObject();
+        player.addProperty("username", "Steve");
+        player.addProperty("online", true);
+        player.addProperty("server", "WC1");
+        player.addProperty("uuid", UUID.randomUUID().toString());
+        player.addProperty("rank", "Player");
+        player.addProperty("supportRank", "champion");
+        player.addProperty("firstJoin", "2020-01-01T00:00:00.000Z");
+        player.addProperty("lastJoin", "2025-01-01T00:00:00.000Z");
+        player.addProperty("playtime", 1234.5);
+
+        JsonObject guild = new JsonObject();
+        guild.addProperty("name", "Sequoia");
+        guild.addProperty("prefix", "SEQ");
+        guild.addProperty("rank", "CAPTAIN");
+        player.add("guild", guild);
+
+        JsonObject ranking = new JsonObject();
+        for (int i = 0; i < 80; i++) {
+            ranking.addProperty("ranking" + i, i * 1000);
+        }
+        player.add("ranking", ranking);
+        player.add("previousRanking", ranking.deepCopy());
+
+        JsonObject characters = new JsonObject();
+        for (int i = 0; i < 12; i++) {
+            JsonObject character = new JsonObject();
+            character.addProperty("level", 106);
+            character.addProperty("xp", 123456);
+            character.addProperty("totalLevel", 1500);
+            character.addProperty("playtime", 512.25);
+
+            JsonObject professions = new JsonObject();
+            for (String profession : PROFESSIONS) {
+                JsonObject professionObject = new JsonObject();
+                professionObject.addProperty("level", 100);
+                professionObject.addProperty("xpPercent", 50);
+                professions.add(profession, professionObject);
+            }
+            character.add("professions", professions);
+
+            JsonArray quests = new JsonArray();
+            for (int quest = 0; quest < 250; quest++) {
+                quests.add("Quest " + quest);
+            }
+            character.add("quests", quests);
+            characters.add(UUID.randomUUID().toString(), character);
+        }
+        player.add("characters", characters);
+        return player;
+    }
+
+    private static JsonObject createGuild() {
+        JsonObject guild = new JsonObject();
+        guild.addProperty("uuid", UUID.randomUUID().toString());
+        guild.addProperty("name", "Sequoia");
+        guild.addProperty("prefix", "SEQ");
+        guild.addProperty("level", 100);
+        guild.addProperty("territories", 30);
+        guild.addProperty("wars", 10000);
+        guild.addProperty("created", "2020-01-01T00:00:00.000Z");
+
+        JsonObject members = new JsonObject();
+        members.addProperty("total", 150);
+        JsonObject recruits = new JsonObject();
+        for (int i = 0; i < 150; i++) {
+            JsonObject member = new JsonObject();
+            member.addProperty("uuid", UUID.randomUUID().toString());
+            member.addProperty("online", i % 3 == 0);
+            member.addProperty("server", "WC" + i % 40);
+            member.addProperty("contributed", 1_000_000_000L + i);
+            member.addProperty("guildRank", i);
+            member.addProperty("joined", "2021-01-01T00:00:00.000Z");
+            recruits.add("Member" + i, member);
+        }
+        members.add("recruit", recruits);
+        guild.add("members", members);
+        return guild;
+    }
+
+    private static JsonObject createWSMessage() {
+        JsonObject data = new JsonObject();
+        data.addProperty("username", "Steve");
+        data.addProperty("nickname", "steve");
+        data.addProperty("display_name", "Chief Steve");
+        JsonArray sequoiaRoles = new JsonArray();
+        sequoiaRoles.add("Chief");
+        sequoiaRoles.add("Raider");
+        data.add("sequoia_roles", sequoiaRoles);
+        data.addProperty("message", "Anyone up for a Nest of the Grootslangs run? Need two more for the party.");
+        data.addProperty("timestamp", "2025-01-01T00:00:00Z");
+
+        JsonObject message = new JsonObject();
+        message.addProperty("type", WSMessageType.S_CHANNEL_MESSAGE.getValue());
+        message.add("data", data);
+        return message;
+    }
+}
@@ -18,7 +18,7 @@ import dev.lotnest.sequoia.core.components.Models;
 import dev.lotnest.sequoia.core.components.Service;
 import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.events.SequoiaCrashEvent;
-import dev.lotnest.sequoia.core.http.HttpClient;
+import dev.lotnest.sequoia.core.http.HttpClients;
 import dev.lotnest.sequoia.core.persisted.SequoiaConfig;
 import dev.lotnest.sequoia.core.text.Fonts;
 import dev.lotnest.sequoia.features.ws.WebSocketFeature;
@@ -73,8 +73,12 @@ public final class SequoiaMod {
         LOGGER.info(message);
     }
 
+    public static boolean isVerboseLogging() {
+        return CONFIG.verboseLogging();
+    }
+
     public static void debug(String message) {
-        if (CONFIG.verboseLogging()) {
+        if (isVerboseLogging()) {
             LOGGER.info("[VERBOSE] {}", message);
         }
     }
@@ -107,7 +111,6 @@ public final class SequoiaMod {
         SequoiaMod.isDevelopmentEnvironment = isDevelopmentEnvironment;
         version = "v" + modVersion;
         versionInt = Integer.parseInt(modVersion.replaceAll("\\D", ""));
-        HttpClient httpClient = HttpClient.newHttpClient();
 
         LOGGER.info(
                 "Sequoia: Starting version {} (using {} on Minecraft {})",
@@ -143,6 +146,30 @@ public final class SequoiaMod {
 
     private static void addCrashCallbacks() {
         Managers.CrashReport.registerCrashContext("In Development", () -> isDevelopmentEnvironment() ? "Yes" : "No");
+        Managers.CrashReport.registerCrashContext(
+                "Wynncraft API HTTP Client",
+                () -> HttpClients.WYNNCRAFT_API.getMetrics().toPrettyString());
+        Managers.CrashReport.registerCrashContext(
+                "Mojang API HTTP Client",
+                () -> HttpClients.MOJANG_API.getMetrics().toPrettyString());
+        Managers.CrashReport.registerCrashContext(
+                "WebSocket Inbound Queue",
+                () -> getWebSocketFeature() != null
+                        ? getWebSocketFeature().getInboundQueue().getMetrics().toPrettyString()
+                        : "Not loaded");
+        Managers.CrashReport.registerCrashContext(
+                "WebSocket Traffic",
+                () -> getWebSocketFeature() != null
+                        ? getWebSocketFeature().getTrafficCounter().getMetrics().toPrettyString()
+                        : "Not loaded");
+        Managers.CrashReport.registerCrashContext(
+                "WebSocket Connection",
+                () -> getWebSocketFeature() != null
+                        ? getWebSocketFeature()
+                                .getConnectionStateMachine()
+                                .getMetrics()
+                                .toPrettyString()
+                        : "Not loaded");
     }
 
     public static void reportCrash(
@@ -10,6 +10,7 @@ import com.mojang.brigadier.context.CommandContext;
 import com.wynntils.core.components.Managers;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.consumers.command.Command;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
 import dev.lotnest.sequoia.core.ws.message.ws.session.GAuthWSMessage;
 import dev.lotnest.sequoia.utils.wynn.WynnUtils;
 import java.util.regex.Pattern;
@@ -45,7 +46,8 @@ public class AuthCommand extends Command {
                 return 1;
             }
 
-            if (Boolean.FALSE.equals(WynnUtils.isSequoiaGuildMember().join())) {
+            if (Boolean.FALSE.equals(
+                    WynnUtils.isSequoiaGuildMember(RequestPriority.INTERACTIVE).join())) {
                 context.getSource()
                         .sendFailure(
                                 SequoiaMod.prefix(Component.translatable("sequoia.command.notASequoiaGuildMember")));
@@ -9,6 +9,7 @@ import com.mojang.brigadier.context.CommandContext;
 import com.wynntils.core.components.Managers;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.consumers.command.Command;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
 import dev.lotnest.sequoia.utils.wynn.WynnUtils;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.network.chat.Component;
@@ -33,7 +34,8 @@ public class ConnectCommand extends Command {
             return 1;
         }
 
-        if (Boolean.FALSE.equals(WynnUtils.isSequoiaGuildMember().join())) {
+        if (Boolean.FALSE.equals(
+                WynnUtils.isSequoiaGuildMember(RequestPriority.INTERACTIVE).join())) {
             context.getSource()
                     .sendFailure(SequoiaMod.prefix(Component.translatable("sequoia.command.notASequoiaGuildMember")));
             return 1;
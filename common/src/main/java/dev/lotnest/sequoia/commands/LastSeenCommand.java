@@ -4,6 +4,7 @@
  */
 package dev.lotnest.sequoia.commands;
 
+import com.google.common.collect.Sets;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
@@ -11,8 +12,10 @@ import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.consumers.command.Command;
 import dev.lotnest.sequoia.mc.MinecraftUtils;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
 import dev.lotnest.sequoia.utils.TimeUtils;
 import java.util.List;
+import java.util.Set;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.ClickEvent;
@@ -21,6 +24,9 @@ import net.minecraft.network.chat.HoverEvent;
 import org.apache.commons.lang3.StringUtils;
 
 public class LastSeenCommand extends Command {
+    private static final Set<PlayerField> PLAYER_FIELDS =
+            Sets.immutableEnumSet(PlayerField.ONLINE, PlayerField.SERVER, PlayerField.LAST_JOIN);
+
     @Override
     public String getCommandName() {
         return "lastSeen";
@@ -45,7 +51,7 @@ public class LastSeenCommand extends Command {
             context.getSource()
                     .sendFailure(SequoiaMod.prefix(Component.translatable("sequoia.command.invalidUsername")));
         } else {
-            Services.Player.getPlayer(username).whenComplete((playerResponse, throwable) -> {
+            Services.Player.getPlayer(username, PLAYER_FIELDS).whenComplete((playerResponse, throwable) -> {
                 if (throwable != null) {
                     SequoiaMod.error("Error looking up player: " + username, throwable);
                     context.getSource()
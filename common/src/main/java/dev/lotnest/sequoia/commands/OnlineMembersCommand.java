@@ -13,6 +13,7 @@ import dev.lotnest.sequoia.core.consumers.command.Command;
 import java.util.List;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
 import net.minecraft.network.chat.Component;
 import org.apache.commons.lang3.StringUtils;
 
@@ -31,6 +32,8 @@ public class OnlineMembersCommand extends Command {
     public LiteralArgumentBuilder<CommandSourceStack> getCommandBuilder(
             LiteralArgumentBuilder<CommandSourceStack> base) {
         return base.then(Commands.argument("guildName", StringArgumentType.word())
+                        .suggests((context, builder) ->
+                                SharedSuggestionProvider.suggest(Services.Guild.getGuildSuggestions(), builder))
                         .executes(this::lookupGuild))
                 .executes(this::syntaxError);
     }
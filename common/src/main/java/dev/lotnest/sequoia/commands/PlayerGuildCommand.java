@@ -4,6 +4,7 @@
  */
 package dev.lotnest.sequoia.commands;
 
+import com.google.common.collect.Sets;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
@@ -11,14 +12,18 @@ import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.consumers.command.Command;
 import dev.lotnest.sequoia.mc.MinecraftUtils;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
 import dev.lotnest.sequoia.utils.TimeUtils;
 import java.util.List;
+import java.util.Set;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 import org.apache.commons.lang3.StringUtils;
 
 public class PlayerGuildCommand extends Command {
+    private static final Set<PlayerField> PLAYER_FIELDS = Sets.immutableEnumSet(PlayerField.GUILD);
+
     @Override
     public String getCommandName() {
         return "playerGuild";
@@ -43,7 +48,7 @@ public class PlayerGuildCommand extends Command {
             context.getSource()
                     .sendFailure(SequoiaMod.prefix(Component.translatable("sequoia.command.invalidUsername")));
         } else {
-            Services.Player.getPlayer(username).whenComplete((playerResponse, playerThrowable) -> {
+            Services.Player.getPlayer(username, PLAYER_FIELDS).whenComplete((playerResponse, playerThrowable) -> {
                 if (playerThrowable != null) {
                     SequoiaMod.error("Error looking up player: " + playerThrowable.getMessage());
                     context.getSource()
@@ -4,6 +4,7 @@
  */
 package dev.lotnest.sequoia.commands;
 
+import com.google.common.collect.Sets;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
@@ -11,12 +12,17 @@ import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.consumers.command.Command;
 import dev.lotnest.sequoia.mc.MinecraftUtils;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
+import java.util.Set;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
 import org.apache.commons.lang3.StringUtils;
 
 public class PlayerRaidsCommand extends Command {
+    private static final Set<PlayerField> PLAYER_FIELDS =
+            Sets.immutableEnumSet(PlayerField.GLOBAL_DATA, PlayerField.RANKING);
+
     @Override
     public String getCommandName() {
         return "playerRaids";
@@ -36,7 +42,7 @@ public class PlayerRaidsCommand extends Command {
             context.getSource()
                     .sendFailure(SequoiaMod.prefix(Component.translatable("sequoia.command.invalidUsername")));
         } else {
-            Services.Player.getPlayer(username).whenComplete((playerResponse, throwable) -> {
+            Services.Player.getPlayer(username, PLAYER_FIELDS).whenComplete((playerResponse, throwable) -> {
                 if (throwable != null) {
                     SequoiaMod.error("Error looking up player: " + username, throwable);
                     context.getSource()
@@ -16,6 +16,7 @@ import java.util.Map;
 import net.minecraft.ChatFormatting;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.commands.SharedSuggestionProvider;
 import net.minecraft.network.chat.Component;
 import org.apache.commons.lang3.StringUtils;
 
@@ -35,6 +36,8 @@ public class SearchCommand extends Command {
             LiteralArgumentBuilder<CommandSourceStack> base) {
         return base.then(Commands.literal("item")
                         .then(Commands.argument("itemName", StringArgumentType.greedyString())
+                                .suggests((context, builder) ->
+                                        SharedSuggestionProvider.suggest(Services.Item.getItemNames(), builder))
                                 .executes(this::searchItem)))
                 .executes(this::syntaxError);
     }
@@ -4,9 +4,11 @@
  */
 package dev.lotnest.sequoia.core.components;
 
+import dev.lotnest.sequoia.handlers.GuildMembershipHandler;
 import dev.lotnest.sequoia.handlers.GuildRaidHandler;
 
 public final class Handlers {
+    public static final GuildMembershipHandler GuildMembership = new GuildMembershipHandler();
     public static final GuildRaidHandler GuildRaid = new GuildRaidHandler();
 
     private Handlers() {}
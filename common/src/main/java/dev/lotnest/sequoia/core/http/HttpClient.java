@@ -4,116 +4,215 @@
  */
 package dev.lotnest.sequoia.core.http;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.core.json.JsonConstants;
 import java.net.http.HttpResponse;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class HttpClient {
-    private static final int[] OK_STATUS_CODES = {200, 201, 202, 203, 204, 205, 206, 207, 208, 226};
-    private static final int POOL_SIZE = 10;
-    private static final Gson gson = new GsonBuilder().create();
-    private static final ConcurrentMap<java.net.http.HttpClient, Boolean> httpClientPool = Maps.newConcurrentMap();
+    private static final int EXECUTOR_THREADS = 4;
+    private static final int DECODE_EXECUTOR_THREADS = 2;
+    private static final int RESPONSE_CACHE_SIZE = 256;
+    private static final int DEDUPLICATION_STATISTICS_SIZE = 128;
+    private static final int NOT_MODIFIED_STATUS_CODE = 304;
+    private static final Gson gson = JsonConstants.GSON;
 
-    protected HttpClient() {
-        createClientPool();
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor decodeExecutor;
+    private final java.net.http.HttpClient client;
+    private final HttpResponseCache responseCache = new HttpResponseCache(RESPONSE_CACHE_SIZE);
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final AtomicInteger peakActiveStreams = new AtomicInteger();
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheRevalidations = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong deduplicatedRequests = new AtomicLong();
+    private final ConcurrentMap<InFlightRequestKey, InFlightRequest> inFlightRequests = Maps.newConcurrentMap();
+    private final Cache<String, AtomicLong> deduplicatedRequestsByUrl =
+            CacheBuilder.newBuilder().maximumSize(DEDUPLICATION_STATISTICS_SIZE).build();
+
+    /**
+     * Creates a client backed by a single HTTP/2 capable {@link java.net.http.HttpClient}. Requests to the same host
+     * are multiplexed as streams over one connection, and all response handling runs on a small bounded executor.
+     *
+     * @param name a short name for the API host, used for thread names and metrics
+     */
+    protected HttpClient(String name) {
+        this.name = name;
+        executor = new ThreadPoolExecutor(
+                EXECUTOR_THREADS,
+                EXECUTOR_THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("sequoia-http-" + name + "-%d")
+                        .setDaemon(true)
+                        .build());
+        executor.allowCoreThreadTimeOut(true);
+        // Decoding reads from a blocking stream that the HTTP executor fills, so it must never run on that executor
+        decodeExecutor = new ThreadPoolExecutor(
+                DECODE_EXECUTOR_THREADS,
+                DECODE_EXECUTOR_THREADS,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("sequoia-http-" + name + "-decode-%d")
+                        .setDaemon(true)
+                        .build());
+        decodeExecutor.allowCoreThreadTimeOut(true);
+        client = java.net.http.HttpClient.newBuilder()
+                .version(java.net.http.HttpClient.Version.HTTP_2)
+                .followRedirects(java.net.http.HttpClient.Redirect.NORMAL)
+                .connectTimeout(HttpUtils.TIMEOUT_DURATION)
+                .executor(executor)
+                .build();
     }
 
     public static HttpClient newHttpClient() {
-        return new HttpClient();
+        return new HttpClient("default");
     }
 
-    private void createClientPool() {
-        for (int i = 0; i < POOL_SIZE; i++) {
-            java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-            httpClientPool.put(client, false);
-        }
+    private void onRequestStarted() {
+        totalRequests.incrementAndGet();
+        int streams = activeStreams.incrementAndGet();
+        peakActiveStreams.accumulateAndGet(streams, Math::max);
     }
 
-    private boolean isOkStatusCode(int statusCode) {
-        for (int okStatusCode : OK_STATUS_CODES) {
-            if (statusCode == okStatusCode) {
-                return true;
+    private void onRequestFinished(HttpResponse<?> response, Throwable throwable) {
+        activeStreams.decrementAndGet();
+        if (throwable != null || response == null) {
+            failedRequests.incrementAndGet();
+        } else {
+            if (response.version() == java.net.http.HttpClient.Version.HTTP_2) {
+                http2Responses.incrementAndGet();
             }
+            onResponse(response);
         }
-        return false;
     }
 
-    private java.net.http.HttpClient getAvailableClient() {
-        for (Map.Entry<java.net.http.HttpClient, Boolean> entry : httpClientPool.entrySet()) {
-            java.net.http.HttpClient client = entry.getKey();
-            if (Boolean.FALSE.equals(entry.getValue())) {
-                httpClientPool.put(client, true);
-                return client;
-            }
-        }
-        java.net.http.HttpClient newClient = java.net.http.HttpClient.newHttpClient();
-        httpClientPool.put(newClient, true);
-        return newClient;
-    }
+    /**
+     * Called for every response received by this client, before it is handed to the caller.
+     *
+     * @param response the HTTP response
+     */
+    protected void onResponse(HttpResponse<?> response) {}
 
     /**
      * Sends a synchronous request using the provided HttpRequest.
      *
-     * @param request the HTTP request to send
+     * @param request     the HTTP request to send
+     * @param bodyHandler the handler deciding how the response body is consumed
      * @param context a short text describing the request context for error logging
      * @return the HTTP response, or null if an error occurred
      */
-    private HttpResponse<String> sendSyncRequest(java.net.http.HttpRequest request, String context) {
-        java.net.http.HttpClient client = getAvailableClient();
+    protected <T> HttpResponse<T> sendSyncRequest(
+            java.net.http.HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, String context) {
+        onRequestStarted();
+        HttpResponse<T> response = null;
+        Throwable failure = null;
         try {
-            return client.send(request, HttpResponse.BodyHandlers.ofString());
+            response = client.send(request, bodyHandler);
+            return response;
         } catch (InterruptedException exception) {
             Thread.currentThread().interrupt();
+            failure = exception;
             SequoiaMod.error("Thread interrupted while " + context, exception);
             return null;
         } catch (Exception exception) {
+            failure = exception;
             SequoiaMod.error("Failed " + context, exception);
             return null;
         } finally {
-            httpClientPool.put(client, false);
+            onRequestFinished(response, failure);
         }
     }
 
     /**
      * Sends an asynchronous request using the provided HttpRequest.
      *
-     * @param request the HTTP request to send
+     * @param request     the HTTP request to send
+     * @param bodyHandler the handler deciding how the response body is consumed
+     * @param priority the priority of the request, used by clients that schedule their requests
      * @param context a short text describing the request context for error logging
      * @return a CompletableFuture with the HTTP response, or null if an error occurred
      */
-    private CompletableFuture<HttpResponse<String>> sendAsyncRequest(
-            java.net.http.HttpRequest request, String context) {
+    protected <T> CompletableFuture<HttpResponse<T>> sendAsyncRequest(
+            java.net.http.HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            RequestPriority priority,
+            String context) {
+        onRequestStarted();
         try {
-            java.net.http.HttpClient client = getAvailableClient();
-            CompletableFuture<HttpResponse<String>> future =
-                    client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
-            future.thenRun(() -> httpClientPool.put(client, false));
-            return future;
+            return client.sendAsync(request, bodyHandler).whenComplete(this::onRequestFinished);
         } catch (Exception exception) {
+            onRequestFinished(null, exception);
             SequoiaMod.error("Failed " + context, exception);
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
     }
 
     public HttpResponse<String> get(String url) {
-        return sendSyncRequest(HttpUtils.newGetRequest(url), "fetching response");
+        return sendSyncRequest(HttpUtils.newGetRequest(url), HttpResponse.BodyHandlers.ofString(), "fetching response");
     }
 
     public CompletableFuture<HttpResponse<String>> getAsync(String url) {
-        return sendAsyncRequest(HttpUtils.newGetRequest(url), "fetching async response");
+        return sendAsyncRequest(
+                HttpUtils.newGetRequest(url),
+                HttpResponse.BodyHandlers.ofString(),
+                RequestPriority.INTERACTIVE,
+                "fetching async response");
     }
 
     public HttpResponse<String> post(String url, String body) {
-        return sendSyncRequest(HttpUtils.newPostRequest(url, body), "posting response");
+        return sendSyncRequest(
+                HttpUtils.newPostRequest(url, body), HttpResponse.BodyHandlers.ofString(), "posting response");
     }
 
     public CompletableFuture<HttpResponse<String>> postAsync(String url, String body) {
-        return sendAsyncRequest(HttpUtils.newPostRequest(url, body), "posting async response");
+        return postAsync(url, body, RequestPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<HttpResponse<String>> postAsync(String url, String body, RequestPriority priority) {
+        return sendAsyncRequest(
+                HttpUtils.newPostRequest(url, body),
+                HttpResponse.BodyHandlers.ofString(),
+                priority,
+                "posting async response");
+    }
+
+    /**
+     * Sends a request built by the caller, for the rare cases that need their own headers or body handling.
+     *
+     * @param request     the HTTP request to send
+     * @param bodyHandler the handler deciding how the response body is consumed
+     * @param priority    the priority of the request
+     * @return a CompletableFuture with the HTTP response, or null if an error occurred
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+            java.net.http.HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestPriority priority) {
+        return sendAsyncRequest(request, bodyHandler, priority, "sending async request");
     }
 
     public <T> T getJson(String url, Class<T> responseType) {
@@ -121,29 +220,171 @@ public class HttpClient {
     }
 
     public <T> T getJson(String url, Class<T> responseType, Gson gson) {
-        HttpResponse<String> response = get(url);
-        if (response != null) {
-            SequoiaMod.debug(response.statusCode() + " " + url + " " + response.body());
-            if (response.body() != null && isOkStatusCode(response.statusCode())) {
-                return gson.fromJson(response.body(), responseType);
-            }
+        HttpResponseCache.Entry cached = responseCache.get(url, responseType, gson);
+        if (cached != null && cached.isFresh()) {
+            cacheHits.incrementAndGet();
+            return responseType.cast(cached.value());
         }
-        return null;
+
+        HttpResponse<Supplier<T>> response = sendSyncRequest(
+                responseCache.withValidators(HttpUtils.newGetRequest(url), cached),
+                new JsonBodyHandler<>(url, responseType, gson),
+                "fetching JSON response");
+        return handleJsonResponse(url, responseType, gson, cached, response).value();
     }
 
     public <T> CompletableFuture<T> getJsonAsync(String url, Class<T> responseType) {
         return getJsonAsync(url, responseType, gson);
     }
 
+    public <T> CompletableFuture<T> getJsonAsync(String url, Class<T> responseType, RequestPriority priority) {
+        return getJsonAsync(url, responseType, gson, priority);
+    }
+
     public <T> CompletableFuture<T> getJsonAsync(String url, Class<T> responseType, Gson gson) {
-        return getAsync(url).thenApply(response -> {
-            if (response != null) {
-                SequoiaMod.debug("ASYNC " + response.statusCode() + " " + url + " " + response.body());
-                if (response.body() != null && isOkStatusCode(response.statusCode())) {
-                    return gson.fromJson(response.body(), responseType);
-                }
+        return getJsonAsync(url, responseType, gson, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Fetches and decodes a JSON response, completing with null if the request failed or the response was not OK.
+     *
+     * @see #getJsonResponseAsync(String, Class, Gson, RequestPriority)
+     */
+    public <T> CompletableFuture<T> getJsonAsync(
+            String url, Class<T> responseType, Gson gson, RequestPriority priority) {
+        return getJsonResponseAsync(url, responseType, gson, priority).thenApply(JsonResponse::value);
+    }
+
+    public <T> CompletableFuture<JsonResponse<T>> getJsonResponseAsync(
+            String url, Class<T> responseType, RequestPriority priority) {
+        return getJsonResponseAsync(url, responseType, gson, priority);
+    }
+
+    /**
+     * Fetches and decodes a JSON response along with its status code. Fresh cached responses are returned without a
+     * request, stale ones are revalidated with a conditional request. Concurrent calls for the same URL share a
+     * single in-flight request. Cached and in-flight responses are only shared between calls decoding into the same
+     * type with the same Gson instance, as a differently configured Gson may decode a different view of the body;
+     * each view of a URL is requested and cached on its own, without evicting the others. A call only joins an
+     * in-flight request of at least its own priority, so an interactive call never waits on a background request
+     * that may be deferred or shed; it sends its own request instead, which later calls then join. The
+     * body is decoded straight from the response stream on the decode executor, so it
+     * is never materialized as a string unless verbose logging is enabled.
+     * <p>
+     * Background requests may be deferred behind interactive ones, or shed entirely when the quota runs low, in which
+     * case the response is {@link JsonResponse#noResponse()}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<JsonResponse<T>> getJsonResponseAsync(
+            String url, Class<T> responseType, Gson gson, RequestPriority priority) {
+        HttpResponseCache.Entry cached = responseCache.get(url, responseType, gson);
+        if (cached != null && cached.isFresh()) {
+            cacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(JsonResponse.cached(responseType.cast(cached.value())));
+        }
+
+        CompletableFuture<JsonResponse<T>> future = new CompletableFuture<>();
+        InFlightRequestKey key = new InFlightRequestKey(url, responseType, gson);
+        InFlightRequest inFlightRequest = new InFlightRequest(priority, future);
+        InFlightRequest existingRequest = inFlightRequests.putIfAbsent(key, inFlightRequest);
+        if (existingRequest != null) {
+            if (existingRequest.priority().compareTo(priority) <= 0) {
+                onRequestDeduplicated(url);
+                return (CompletableFuture<JsonResponse<T>>) existingRequest.future();
+            }
+            inFlightRequests.put(key, inFlightRequest);
+        }
+
+        fetchJsonAsync(url, responseType, gson, cached, priority).whenComplete((response, throwable) -> {
+            inFlightRequests.remove(key, inFlightRequest);
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(response);
             }
-            return null;
         });
+        return future;
+    }
+
+    private <T> CompletableFuture<JsonResponse<T>> fetchJsonAsync(
+            String url, Class<T> responseType, Gson gson, HttpResponseCache.Entry cached, RequestPriority priority) {
+        return sendAsyncRequest(
+                        responseCache.withValidators(HttpUtils.newGetRequest(url), cached),
+                        new JsonBodyHandler<>(url, responseType, gson),
+                        priority,
+                        "fetching async JSON response")
+                .thenApplyAsync(
+                        response -> handleJsonResponse(url, responseType, gson, cached, response), decodeExecutor);
+    }
+
+    private void onRequestDeduplicated(String url) {
+        deduplicatedRequests.incrementAndGet();
+        try {
+            deduplicatedRequestsByUrl.get(url, AtomicLong::new).incrementAndGet();
+        } catch (ExecutionException exception) {
+            SequoiaMod.error("Failed to record deduplicated request for " + url, exception);
+        }
+        SequoiaMod.debug("Joined in-flight request for " + url);
+    }
+
+    private <T> JsonResponse<T> handleJsonResponse(
+            String url,
+            Class<T> responseType,
+            Gson gson,
+            HttpResponseCache.Entry cached,
+            HttpResponse<Supplier<T>> response) {
+        if (response == null) {
+            return JsonResponse.noResponse();
+        }
+
+        if (response.statusCode() == NOT_MODIFIED_STATUS_CODE && cached != null) {
+            cacheRevalidations.incrementAndGet();
+            SequoiaMod.debug("304 " + url + " (served from cache)");
+            return JsonResponse.cached(responseType.cast(
+                    responseCache.refresh(url, cached, response.headers()).value()));
+        }
+
+        cacheMisses.incrementAndGet();
+        T value = response.body().get();
+        if (value != null) {
+            responseCache.put(url, responseType, gson, value, response.headers());
+        } else {
+            responseCache.invalidate(url, responseType, gson);
+        }
+        return new JsonResponse<>(response.statusCode(), value);
+    }
+
+    public String getName() {
+        return name;
     }
+
+    /**
+     * @return how many callers joined an already in-flight request instead of sending their own, per URL
+     */
+    public Map<String, Long> getDeduplicatedRequestsByUrl() {
+        Map<String, Long> snapshot = Maps.newHashMap();
+        deduplicatedRequestsByUrl.asMap().forEach((url, count) -> snapshot.put(url, count.get()));
+        return snapshot;
+    }
+
+    public HttpClientMetrics getMetrics() {
+        return new HttpClientMetrics(
+                name,
+                executor.getPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                activeStreams.get(),
+                peakActiveStreams.get(),
+                totalRequests.get(),
+                failedRequests.get(),
+                http2Responses.get(),
+                cacheHits.get(),
+                cacheRevalidations.get(),
+                cacheMisses.get(),
+                deduplicatedRequests.get());
+    }
+
+    private record InFlightRequestKey(String url, Class<?> responseType, Gson gson) {}
+
+    private record InFlightRequest(RequestPriority priority, CompletableFuture<?> future) {}
 }
@@ -0,0 +1,27 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http;
+
+public record HttpClientMetrics(
+        String name,
+        int poolSize,
+        int activeThreads,
+        int queuedTasks,
+        int activeStreams,
+        int peakActiveStreams,
+        long totalRequests,
+        long failedRequests,
+        long http2Responses,
+        long cacheHits,
+        long cacheRevalidations,
+        long cacheMisses,
+        long deduplicatedRequests) {
+    public String toPrettyString() {
+        return "threads=" + activeThreads + "/" + poolSize + ", queued=" + queuedTasks + ", streams=" + activeStreams
+                + " (peak " + peakActiveStreams + "), requests=" + totalRequests + ", failed=" + failedRequests
+                + ", http2=" + http2Responses + ", cache hits=" + cacheHits + ", revalidated=" + cacheRevalidations
+                + ", misses=" + cacheMisses + ", deduplicated=" + deduplicatedRequests;
+    }
+}
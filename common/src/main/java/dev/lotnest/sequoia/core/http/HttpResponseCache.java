@@ -0,0 +1,142 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.Gson;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.util.Locale;
+import java.util.OptionalLong;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A size-bounded LRU cache of decoded responses, keyed by URL and by how the body was decoded, so that different views
+ * of the same URL are cached side by side instead of evicting each other. Entries are served without a request while they are
+ * fresh according to {@code Cache-Control: max-age}, and revalidated with {@code If-None-Match} /
+ * {@code If-Modified-Since} afterwards, so an unchanged resource costs neither a body transfer nor a re-parse.
+ */
+public final class HttpResponseCache {
+    private final Cache<Key, Entry> entries;
+
+    public HttpResponseCache(int maximumSize) {
+        entries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * @return the entry for the URL if it was decoded into the same type by the same Gson instance, otherwise null
+     */
+    public Entry get(String url, Class<?> responseType, Gson gson) {
+        return entries.getIfPresent(new Key(url, responseType, gson));
+    }
+
+    /**
+     * Adds the validators of a cached entry to a request, turning it into a conditional request.
+     *
+     * @param request the request to send
+     * @param entry   the cached entry for the requested URL, or null
+     * @return the conditional request, or the original request if there is nothing to revalidate
+     */
+    public HttpRequest withValidators(HttpRequest request, Entry entry) {
+        if (entry == null || (entry.eTag() == null && entry.lastModified() == null)) {
+            return request;
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (entry.eTag() != null) {
+            builder.header("If-None-Match", entry.eTag());
+        }
+        if (entry.lastModified() != null) {
+            builder.header("If-Modified-Since", entry.lastModified());
+        }
+        return builder.build();
+    }
+
+    public void put(String url, Class<?> responseType, Gson gson, Object value, HttpHeaders headers) {
+        CacheControl cacheControl = CacheControl.parse(headers);
+        if (cacheControl.noStore()) {
+            return;
+        }
+
+        String eTag = headers.firstValue("ETag").orElse(null);
+        String lastModified = headers.firstValue("Last-Modified").orElse(null);
+        if (cacheControl.maxAgeMillis().isEmpty() && eTag == null && lastModified == null) {
+            return;
+        }
+
+        entries.put(
+                new Key(url, responseType, gson),
+                new Entry(responseType, gson, value, eTag, lastModified, cacheControl.expiresAt()));
+    }
+
+    /**
+     * Extends the lifetime of an entry after the server confirmed it is unchanged with a 304.
+     */
+    public Entry refresh(String url, Entry entry, HttpHeaders headers) {
+        Entry refreshed = new Entry(
+                entry.responseType(),
+                entry.gson(),
+                entry.value(),
+                headers.firstValue("ETag").orElse(entry.eTag()),
+                headers.firstValue("Last-Modified").orElse(entry.lastModified()),
+                CacheControl.parse(headers).expiresAt());
+        entries.put(new Key(url, entry.responseType(), entry.gson()), refreshed);
+        return refreshed;
+    }
+
+    public void invalidate(String url, Class<?> responseType, Gson gson) {
+        entries.invalidate(new Key(url, responseType, gson));
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public record Entry(
+            Class<?> responseType, Gson gson, Object value, String eTag, String lastModified, long expiresAt) {
+        public boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+
+    private record Key(String url, Class<?> responseType, Gson gson) {}
+
+    private record CacheControl(boolean noStore, boolean noCache, OptionalLong maxAgeMillis, long ageMillis) {
+        private static CacheControl parse(HttpHeaders headers) {
+            boolean noStore = false;
+            boolean noCache = false;
+            OptionalLong maxAgeMillis = OptionalLong.empty();
+
+            for (String value : headers.allValues("Cache-Control")) {
+                for (String directive : value.split(",")) {
+                    String normalized = directive.trim().toLowerCase(Locale.ROOT);
+                    if (normalized.equals("no-store")) {
+                        noStore = true;
+                    } else if (normalized.equals("no-cache")) {
+                        noCache = true;
+                    } else if (normalized.startsWith("max-age=")) {
+                        String seconds = StringUtils.strip(normalized.substring("max-age=".length()), "\"");
+                        if (StringUtils.isNumeric(seconds)) {
+                            maxAgeMillis = OptionalLong.of(Long.parseLong(seconds) * 1000);
+                        }
+                    }
+                }
+            }
+
+            String age = headers.firstValue("Age").orElse("");
+            long ageMillis = StringUtils.isNumeric(age) ? Long.parseLong(age) * 1000 : 0;
+            return new CacheControl(noStore, noCache, maxAgeMillis, ageMillis);
+        }
+
+        private long expiresAt() {
+            long now = System.currentTimeMillis();
+            if (noCache || maxAgeMillis.isEmpty()) {
+                return now;
+            }
+            return now + Math.max(0, maxAgeMillis.getAsLong() - ageMillis);
+        }
+    }
+}
@@ -15,8 +15,19 @@ public final class HttpUtils {
             + "(minecraft:Iriya__; discord:@Iriya__; github:Iriya__; mailto:iriyadiscord@gmail.com; restrictions:no-reply-not-allowed)";
     public static final Duration TIMEOUT_DURATION = Duration.ofSeconds(30);
 
+    private static final int[] OK_STATUS_CODES = {200, 201, 202, 203, 204, 205, 206, 207, 208, 226};
+
     private HttpUtils() {}
 
+    public static boolean isOkStatusCode(int statusCode) {
+        for (int okStatusCode : OK_STATUS_CODES) {
+            if (statusCode == okStatusCode) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static HttpRequest newGetRequest(String url) {
         return newGetRequest(url, TIMEOUT_DURATION);
     }
@@ -0,0 +1,102 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import dev.lotnest.sequoia.SequoiaMod;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Decodes a JSON response body directly from the response stream through a Gson {@link JsonReader}, instead of
+ * buffering the whole body into a string first.
+ * <p>
+ * The body is a {@link Supplier}, as reading the stream blocks until the body has arrived. It must be called from a
+ * thread that is not used by the HTTP client itself. Non-OK responses are discarded without being read, and the raw
+ * body is only captured for logging when verbose logging is enabled.
+ *
+ * @param <T> the type to decode the body into
+ */
+public final class JsonBodyHandler<T> implements HttpResponse.BodyHandler<Supplier<T>> {
+    private final String url;
+    private final TypeToken<T> typeToken;
+    private final Gson gson;
+
+    public JsonBodyHandler(String url, Class<T> responseType, Gson gson) {
+        this.url = url;
+        this.typeToken = TypeToken.get(responseType);
+        this.gson = gson;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<Supplier<T>> apply(HttpResponse.ResponseInfo responseInfo) {
+        int statusCode = responseInfo.statusCode();
+        if (!HttpUtils.isOkStatusCode(statusCode)) {
+            if (SequoiaMod.isVerboseLogging()) {
+                return HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> {
+                            SequoiaMod.debug(statusCode + " " + url + " " + body);
+                            return () -> null;
+                        });
+            }
+            return HttpResponse.BodySubscribers.replacing(() -> null);
+        }
+
+        return HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(), inputStream -> () -> decode(statusCode, inputStream));
+    }
+
+    private T decode(int statusCode, InputStream inputStream) {
+        ByteArrayOutputStream rawBody = SequoiaMod.isVerboseLogging() ? new ByteArrayOutputStream() : null;
+        InputStream source = rawBody != null ? new CapturingInputStream(inputStream, rawBody) : inputStream;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+            return gson.fromJson(reader, typeToken);
+        } catch (IOException | JsonParseException exception) {
+            SequoiaMod.error("Failed to decode JSON response from " + url, exception);
+            return null;
+        } finally {
+            if (rawBody != null) {
+                SequoiaMod.debug(statusCode + " " + url + " " + rawBody.toString(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static final class CapturingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream capture;
+
+        private CapturingInputStream(InputStream in, ByteArrayOutputStream capture) {
+            super(in);
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                capture.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                capture.write(buffer, offset, read);
+            }
+            return read;
+        }
+    }
+}
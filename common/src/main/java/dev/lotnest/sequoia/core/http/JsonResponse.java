@@ -0,0 +1,32 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http;
+
+/**
+ * A decoded JSON response along with the status code it was answered with, for callers that need to tell a missing
+ * resource apart from a failed request.
+ *
+ * @param statusCode the status code of the response, {@value #OK_STATUS_CODE} for responses served from the cache,
+ *                   or {@value #NO_RESPONSE_STATUS_CODE} if no response was received
+ * @param value      the decoded body, or null if the response was not OK or could not be decoded
+ * @param <T>        the type of the decoded body
+ */
+public record JsonResponse<T>(int statusCode, T value) {
+    public static final int NO_RESPONSE_STATUS_CODE = 0;
+    public static final int OK_STATUS_CODE = 200;
+    public static final int NOT_FOUND_STATUS_CODE = 404;
+
+    public static <T> JsonResponse<T> noResponse() {
+        return new JsonResponse<>(NO_RESPONSE_STATUS_CODE, null);
+    }
+
+    public static <T> JsonResponse<T> cached(T value) {
+        return new JsonResponse<>(OK_STATUS_CODE, value);
+    }
+
+    public boolean isNotFound() {
+        return statusCode == NOT_FOUND_STATUS_CODE;
+    }
+}
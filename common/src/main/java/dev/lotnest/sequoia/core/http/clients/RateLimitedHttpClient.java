@@ -0,0 +1,87 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http.clients;
+
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.http.HttpClient;
+import dev.lotnest.sequoia.core.http.ratelimiter.RateLimiter;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+public abstract class RateLimitedHttpClient extends HttpClient {
+    private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+    private static final int MAX_RATE_LIMITED_RETRIES = 2;
+
+    private final RateLimiter rateLimiter;
+
+    protected RateLimitedHttpClient(String name, RateLimiter rateLimiter) {
+        super(name);
+        this.rateLimiter = rateLimiter;
+    }
+
+    private static boolean isRateLimited(HttpResponse<?> response) {
+        return response != null && response.statusCode() == TOO_MANY_REQUESTS_STATUS_CODE;
+    }
+
+    @Override
+    protected <T> HttpResponse<T> sendSyncRequest(
+            HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, String context) {
+        for (int attempt = 0; ; attempt++) {
+            RateLimiter.Permit permit = rateLimiter.acquire();
+            HttpResponse<T> response;
+            try {
+                response = super.sendSyncRequest(request, bodyHandler, context);
+            } finally {
+                permit.release();
+            }
+
+            if (!isRateLimited(response) || attempt >= MAX_RATE_LIMITED_RETRIES) {
+                return response;
+            }
+        }
+    }
+
+    @Override
+    protected <T> CompletableFuture<HttpResponse<T>> sendAsyncRequest(
+            HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, RequestPriority priority, String context) {
+        return sendAsyncRequest(request, bodyHandler, priority, context, 0);
+    }
+
+    /**
+     * Sends a request once the rate limiter grants a permit. If the API still answers with a 429, the request is
+     * queued again; the rate limiter has been paused by then, so the retry waits out the backoff without blocking.
+     * Requests the rate limiter sheds are completed with null, like any other failed request.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsyncRequest(
+            HttpRequest request,
+            HttpResponse.BodyHandler<T> bodyHandler,
+            RequestPriority priority,
+            String context,
+            int attempt) {
+        CompletableFuture<RateLimiter.Permit> permitFuture = rateLimiter.acquireAsync(priority);
+        if (permitFuture.isCompletedExceptionally()) {
+            SequoiaMod.debug("Shed " + priority + " request to " + request.uri());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return permitFuture
+                .thenCompose(permit -> super.sendAsyncRequest(request, bodyHandler, priority, context)
+                        .whenComplete((response, throwable) -> permit.release()))
+                .thenCompose(response -> isRateLimited(response) && attempt < MAX_RATE_LIMITED_RETRIES
+                        ? sendAsyncRequest(request, bodyHandler, priority, context, attempt + 1)
+                        : CompletableFuture.completedFuture(response));
+    }
+
+    @Override
+    protected void onResponse(HttpResponse<?> response) {
+        rateLimiter.onResponse(response.statusCode(), response.headers());
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
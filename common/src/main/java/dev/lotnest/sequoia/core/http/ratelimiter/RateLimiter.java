@@ -4,74 +4,303 @@
  */
 package dev.lotnest.sequoia.core.http.ratelimiter;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dev.lotnest.sequoia.SequoiaMod;
-import java.util.concurrent.Semaphore;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RateLimiter {
-    private final Semaphore concurrencySemaphore;
-    private final double capacity;
+    private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+    private static final double WINDOW_MILLIS = 60000.0;
+    private static final long BASE_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 60000;
+    private static final int MAX_QUEUED_BACKGROUND_REQUESTS = 64;
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("sequoia-rate-limiter")
+                    .setDaemon(true)
+                    .build());
+
+    private final Map<RequestPriority, Queue<CompletableFuture<Permit>>> waiters =
+            Maps.newEnumMap(RequestPriority.class);
+    private final int maxConcurrentRequests;
+    private double capacity;
     private double tokens;
-    private final double refillRate;
+    private double refillRate;
     private long lastRefillTime;
+    private long pausedUntil;
+    private int consecutiveRateLimitedResponses;
+    private int inFlightRequests;
+    private ScheduledFuture<?> scheduledDrain;
 
     public RateLimiter(int maxConcurrentRequests, double requestsPerMinute) {
-        concurrencySemaphore = new Semaphore(maxConcurrentRequests);
+        this.maxConcurrentRequests = maxConcurrentRequests;
         capacity = requestsPerMinute;
         tokens = requestsPerMinute;
-        refillRate = requestsPerMinute / 60000.0;
+        refillRate = requestsPerMinute / WINDOW_MILLIS;
         lastRefillTime = System.currentTimeMillis();
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            waiters.put(priority, Queues.newArrayDeque());
+        }
     }
 
-    private void waitForToken() {
+    private void refillTokens() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - lastRefillTime;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillRate);
+            lastRefillTime = now;
+        }
+    }
+
+    /**
+     * Hands out permits to as many waiters as the token bucket and the concurrency limit allow, by priority and in
+     * FIFO order within a priority. Lower priorities only get a permit while their reserved share of the bucket and
+     * of the concurrency slots is left untouched. If waiters are left over because the bucket is too empty, a single
+     * wake-up is scheduled for when the first of them can be served. Waiters that are blocked on concurrency are woken
+     * up by {@link Permit#release()} instead.
+     * <p>
+     * Always runs on the timer thread, so that dependent stages of the returned futures never run on the caller.
+     */
+    private void drain() {
+        List<CompletableFuture<Permit>> granted = Lists.newArrayList();
+
         synchronized (this) {
-            while (tokens < 1) {
-                refillTokens();
-                if (tokens >= 1) {
+            scheduledDrain = null;
+            refillTokens();
+
+            long pauseMillis = pausedUntil - System.currentTimeMillis();
+            if (pauseMillis > 0) {
+                if (hasWaiters()) {
+                    scheduledDrain = TIMER.schedule(this::drain, pauseMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+
+            long nextWakeUp = Long.MAX_VALUE;
+            for (RequestPriority priority : RequestPriority.values()) {
+                Queue<CompletableFuture<Permit>> queue = waiters.get(priority);
+                double requiredTokens = Math.min(capacity, 1 + capacity * priority.getReservedQuotaRatio());
+                int concurrencyLimit = Math.max(1, maxConcurrentRequests - priority.getReservedConcurrency());
+
+                while (!queue.isEmpty() && tokens >= requiredTokens && inFlightRequests < concurrencyLimit) {
+                    CompletableFuture<Permit> waiter = queue.poll();
+                    if (waiter.isDone()) {
+                        continue;
+                    }
+
                     tokens -= 1;
-                    return;
+                    inFlightRequests++;
+                    granted.add(waiter);
                 }
-                long sleepTime = (long) Math.ceil((1 - tokens) / refillRate);
-                try {
-                    wait(sleepTime);
-                } catch (InterruptedException exception) {
-                    Thread.currentThread().interrupt();
-                    SequoiaMod.warn("Interrupted while waiting for rate limiter", exception);
-                    return;
+
+                if (!queue.isEmpty() && tokens < requiredTokens) {
+                    nextWakeUp = Math.min(nextWakeUp, (long) Math.ceil((requiredTokens - tokens) / refillRate));
                 }
             }
-            tokens -= 1;
+
+            if (nextWakeUp != Long.MAX_VALUE) {
+                scheduledDrain = TIMER.schedule(this::drain, nextWakeUp, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        for (CompletableFuture<Permit> waiter : granted) {
+            Permit permit = new Permit();
+            if (!waiter.complete(permit)) {
+                // The caller gave up (e.g. cancelled) while we were granting; the token is spent, the slot is not.
+                permit.release();
+            }
         }
     }
 
-    private synchronized void refillTokens() {
-        long now = System.currentTimeMillis();
-        long elapsed = now - lastRefillTime;
-        if (elapsed > 0) {
-            tokens = Math.min(capacity, tokens + elapsed * refillRate);
-            lastRefillTime = now;
-            notifyAll();
+    private void scheduleDrain() {
+        synchronized (this) {
+            if (scheduledDrain != null) {
+                scheduledDrain.cancel(false);
+                scheduledDrain = null;
+            }
         }
+        TIMER.execute(this::drain);
+    }
+
+    /**
+     * Requests permission for an interactive request without blocking.
+     *
+     * @see #acquireAsync(RequestPriority)
+     */
+    public CompletableFuture<Permit> acquireAsync() {
+        return acquireAsync(RequestPriority.INTERACTIVE);
     }
 
     /**
-     * Acquires permission for a request. This call blocks until both a token is available
-     * (ensuring we respect the global rate) and a concurrency permit is available (ensuring
-     * only a limited number of concurrent requests).
+     * Requests permission for a request without blocking. The returned future is completed on the rate limiter
+     * timer thread once both a token is available (ensuring we respect the global rate) and a concurrency slot is
+     * free (ensuring only a limited number of concurrent requests), after every waiting request of a higher
+     * priority. The permit must be released once the request is done.
+     * <p>
+     * Background requests are shed once too many of them are queued, as they would only be served long after
+     * anyone cares about the result.
+     *
+     * @param priority the priority class of the request
+     * @return a future completed with a {@link Permit} once the request may be sent
      */
-    public void acquire() {
-        try {
-            waitForToken();
-            concurrencySemaphore.acquire();
-        } catch (InterruptedException exception) {
-            Thread.currentThread().interrupt();
-            SequoiaMod.warn("Interrupted while waiting for rate limiter", exception);
+    public CompletableFuture<Permit> acquireAsync(RequestPriority priority) {
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        synchronized (this) {
+            Queue<CompletableFuture<Permit>> queue = waiters.get(priority);
+            if (priority != RequestPriority.INTERACTIVE && queue.size() >= MAX_QUEUED_BACKGROUND_REQUESTS) {
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Too many queued " + priority + " requests"));
+            }
+            queue.add(future);
         }
+        scheduleDrain();
+        return future;
+    }
+
+    /**
+     * Acquires permission for a request. This call blocks until a permit is granted, and should only be used by
+     * synchronous callers; asynchronous code should use {@link #acquireAsync()}.
+     *
+     * @return the granted permit, which must be released once the request is done
+     */
+    public Permit acquire() {
+        return acquireAsync().join();
     }
 
     /**
-     * Releases a previously acquired concurrency permit.
+     * Adjusts the limiter to what the API reports about our quota. {@code RateLimit-Limit} resizes the bucket,
+     * {@code RateLimit-Remaining} and {@code RateLimit-Reset} resynchronize the available tokens (pausing until the
+     * window resets once the quota is used up), and a 429 pauses all requests for {@code Retry-After}, or for an
+     * exponentially growing backoff if the header is missing.
+     *
+     * @param statusCode the status code of the response
+     * @param headers    the headers of the response
      */
-    public void release() {
-        concurrencySemaphore.release();
+    public void onResponse(int statusCode, HttpHeaders headers) {
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            refillTokens();
+
+            OptionalLong limit = parseLongHeader(headers, "RateLimit-Limit");
+            if (limit.isPresent() && limit.getAsLong() > 0 && limit.getAsLong() != capacity) {
+                SequoiaMod.debug(
+                        "Resizing rate limiter from " + capacity + " to " + limit.getAsLong() + " requests per minute");
+                capacity = limit.getAsLong();
+                refillRate = capacity / WINDOW_MILLIS;
+                tokens = Math.min(tokens, capacity);
+            }
+
+            if (statusCode == TOO_MANY_REQUESTS_STATUS_CODE) {
+                consecutiveRateLimitedResponses++;
+                long backoffMillis = parseRetryAfterMillis(headers)
+                        .orElse(Math.min(
+                                MAX_BACKOFF_MILLIS,
+                                BASE_BACKOFF_MILLIS << Math.min(consecutiveRateLimitedResponses - 1, 16)));
+                SequoiaMod.warn("Rate limited by API, backing off for " + backoffMillis + "ms");
+                tokens = 0;
+                pausedUntil = Math.max(pausedUntil, now + backoffMillis);
+            } else {
+                consecutiveRateLimitedResponses = 0;
+
+                OptionalLong remaining = parseLongHeader(headers, "RateLimit-Remaining");
+                if (remaining.isPresent()) {
+                    // The reporting request still holds its slot, every other in-flight request is yet to be counted
+                    long unaccounted = Math.max(0, inFlightRequests - 1);
+                    tokens = Math.max(0, Math.min(capacity, remaining.getAsLong() - unaccounted));
+
+                    OptionalLong reset = parseLongHeader(headers, "RateLimit-Reset");
+                    if (remaining.getAsLong() <= 0 && reset.isPresent()) {
+                        pausedUntil = Math.max(pausedUntil, now + reset.getAsLong() * 1000);
+                    }
+                }
+            }
+        }
+        scheduleDrain();
+    }
+
+    private static OptionalLong parseLongHeader(HttpHeaders headers, String name) {
+        return headers.firstValue(name)
+                .map(value -> {
+                    try {
+                        return OptionalLong.of(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException exception) {
+                        return OptionalLong.empty();
+                    }
+                })
+                .orElse(OptionalLong.empty());
+    }
+
+    private static OptionalLong parseRetryAfterMillis(HttpHeaders headers) {
+        OptionalLong seconds = parseLongHeader(headers, "Retry-After");
+        if (seconds.isPresent()) {
+            return OptionalLong.of(Math.max(0, seconds.getAsLong()) * 1000);
+        }
+
+        return headers.firstValue("Retry-After")
+                .map(value -> {
+                    try {
+                        ZonedDateTime retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                        return OptionalLong.of(Math.max(
+                                0,
+                                Duration.between(ZonedDateTime.now(), retryAt).toMillis()));
+                    } catch (RuntimeException exception) {
+                        return OptionalLong.empty();
+                    }
+                })
+                .orElse(OptionalLong.empty());
+    }
+
+    private boolean hasWaiters() {
+        return waiters.values().stream().anyMatch(queue -> !queue.isEmpty());
+    }
+
+    public synchronized int getQueuedRequests() {
+        return waiters.values().stream().mapToInt(Queue::size).sum();
+    }
+
+    public synchronized int getQueuedRequests(RequestPriority priority) {
+        return waiters.get(priority).size();
+    }
+
+    public synchronized int getInFlightRequests() {
+        return inFlightRequests;
+    }
+
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {}
+
+        /**
+         * Releases the concurrency slot held by this permit. Releasing a permit more than once has no effect.
+         */
+        public void release() {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+
+            synchronized (RateLimiter.this) {
+                inFlightRequests--;
+            }
+            scheduleDrain();
+        }
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.http.ratelimiter;
+
+/**
+ * Priority classes of rate limited requests, in the order they are served. Lower priorities leave part of the quota
+ * and of the concurrency slots to higher ones, so they are deferred once the remaining quota runs low.
+ */
+public enum RequestPriority {
+    /**
+     * Requests the player is actively waiting for, such as commands.
+     */
+    INTERACTIVE(0.0, 0),
+    /**
+     * Requests made on the player's behalf without them asking, such as prefetches and automatic displays.
+     */
+    BACKGROUND(0.2, 1);
+
+    private final double reservedQuotaRatio;
+    private final int reservedConcurrency;
+
+    RequestPriority(double reservedQuotaRatio, int reservedConcurrency) {
+        this.reservedQuotaRatio = reservedQuotaRatio;
+        this.reservedConcurrency = reservedConcurrency;
+    }
+
+    /**
+     * @return the fraction of the bucket that must remain untouched for requests of this priority to be served
+     */
+    public double getReservedQuotaRatio() {
+        return reservedQuotaRatio;
+    }
+
+    /**
+     * @return the number of concurrency slots that requests of this priority may not use
+     */
+    public int getReservedConcurrency() {
+        return reservedConcurrency;
+    }
+}
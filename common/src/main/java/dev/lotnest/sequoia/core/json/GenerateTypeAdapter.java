@@ -0,0 +1,19 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Has a streaming type adapter generated for the annotated class or record at compile time, so that
+ * {@link JsonConstants#GSON} reads and writes it without reflection. The type must be public, and either have a no-arg
+ * constructor and a setter for every field, or a constructor taking every field in declaration order.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {}
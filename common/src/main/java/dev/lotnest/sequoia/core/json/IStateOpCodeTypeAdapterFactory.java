@@ -0,0 +1,81 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
+import java.io.IOException;
+
+/**
+ * Writes an {@link IStateOpCode}'s payload straight to the output with the payload type's own adapter, rather than
+ * converting it to a {@link JsonElement} tree first. The output is the same as writing {@link IStateOpCode#getData()}.
+ */
+public class IStateOpCodeTypeAdapterFactory implements TypeAdapterFactory {
+    private static final String OP_CODE_PROPERTY = "op_code";
+    private static final String DATA_PROPERTY = "data";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        if (typeToken.getRawType() != IStateOpCode.class) {
+            return null;
+        }
+
+        TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+        return (TypeAdapter<T>) new TypeAdapter<IStateOpCode>() {
+            @Override
+            public void write(JsonWriter out, IStateOpCode value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+
+                out.beginObject();
+                out.name(OP_CODE_PROPERTY).value(value.getOpCode());
+                out.name(DATA_PROPERTY);
+                Object payload = value.getPayload();
+                if (payload == null) {
+                    out.nullValue();
+                } else {
+                    TypeAdapter<Object> payloadAdapter = (TypeAdapter<Object>) gson.getAdapter(payload.getClass());
+                    payloadAdapter.write(out, payload);
+                }
+                out.endObject();
+            }
+
+            @Override
+            public IStateOpCode read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+
+                int opCode = 0;
+                JsonElement data = null;
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case OP_CODE_PROPERTY -> {
+                            if (!JsonStreams.nextNull(in)) {
+                                opCode = JsonStreams.nextInt(in);
+                            }
+                        }
+                        case DATA_PROPERTY -> data = elementAdapter.read(in);
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+                return new IStateOpCode(opCode, data);
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import dev.lotnest.sequoia.core.ws.type.SBinaryDataOpCodeType;
+import dev.lotnest.sequoia.services.wynn.item.ItemResponse;
+import dev.lotnest.sequoia.services.wynn.item.ItemsResponse;
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+public final class JsonConstants {
+    /**
+     * The Gson every API response and WS message goes through. Types annotated with {@link GenerateTypeAdapter} are
+     * handled by their generated adapters, everything else by the adapters registered here or Gson's own.
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+            .registerTypeAdapterFactory(new IStateOpCodeTypeAdapterFactory())
+            .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeAdapter())
+            .registerTypeAdapter(SBinaryDataOpCodeType.class, new SBinaryDataOpCodeTypeAdapter())
+            .registerTypeAdapter(ItemsResponse.class, new ItemsResponseAdapter())
+            .registerTypeAdapter(ItemResponse.Icon.class, new ItemResponseIconAdapter())
+            .registerTypeAdapter(
+                    new TypeToken<Map<String, ItemResponse.Identification>>() {}.getType(),
+                    new ItemResponseIdentificationAdapter())
+            .create();
+
+    private JsonConstants() {}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+
+/**
+ * Reads strings and primitives the way Gson's built-in adapters do, for the adapters generated from
+ * {@link GenerateTypeAdapter}.
+ */
+public final class JsonStreams {
+    private JsonStreams() {}
+
+    /**
+     * @return whether the next value is null, in which case it is consumed
+     */
+    public static boolean nextNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    public static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    public static boolean nextBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    public static byte nextByte(JsonReader in) throws IOException {
+        int value = nextInt(in);
+        if (value > 255 || value < Byte.MIN_VALUE) {
+            throw new JsonSyntaxException(
+                    "Lossy conversion from " + value + " to byte; at path " + in.getPreviousPath());
+        }
+        return (byte) value;
+    }
+
+    public static short nextShort(JsonReader in) throws IOException {
+        int value = nextInt(in);
+        if (value > 65535 || value < Short.MIN_VALUE) {
+            throw new JsonSyntaxException(
+                    "Lossy conversion from " + value + " to short; at path " + in.getPreviousPath());
+        }
+        return (short) value;
+    }
+
+    public static int nextInt(JsonReader in) throws IOException {
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static long nextLong(JsonReader in) throws IOException {
+        try {
+            return in.nextLong();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    public static float nextFloat(JsonReader in) throws IOException {
+        return (float) in.nextDouble();
+    }
+
+    public static double nextDouble(JsonReader in) throws IOException {
+        return in.nextDouble();
+    }
+}
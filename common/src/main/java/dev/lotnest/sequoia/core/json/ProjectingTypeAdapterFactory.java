@@ -0,0 +1,73 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Deserializes only the given top-level fields of a type. Every other field is skipped straight in the token stream,
+ * so no strings, numbers or objects are ever built for it; the fields it holds are left at their defaults.
+ */
+public class ProjectingTypeAdapterFactory implements TypeAdapterFactory {
+    private final Class<?> projectedType;
+    private final Set<String> fieldNames;
+
+    /**
+     * @param projectedType the type to project
+     * @param fieldNames    the serialized names of the top-level fields to deserialize
+     */
+    public ProjectingTypeAdapterFactory(Class<?> projectedType, Set<String> fieldNames) {
+        this.projectedType = projectedType;
+        this.fieldNames = ImmutableSet.copyOf(fieldNames);
+    }
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        if (typeToken.getRawType() != projectedType) {
+            return null;
+        }
+
+        TypeAdapter<T> delegate = gson.getDelegateAdapter(this, typeToken);
+        TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+
+                JsonObject projectedObject = new JsonObject();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (fieldNames.contains(name)) {
+                        projectedObject.add(name, elementAdapter.read(in));
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+                return delegate.fromJsonTree(projectedObject);
+            }
+        };
+    }
+}
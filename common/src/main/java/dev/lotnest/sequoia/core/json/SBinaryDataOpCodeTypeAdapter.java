@@ -0,0 +1,36 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dev.lotnest.sequoia.core.ws.type.SBinaryDataOpCodeType;
+import java.io.IOException;
+
+/**
+ * Op codes are sent as their numeric value, see {@link SBinaryDataOpCodeType#getValue()}, which Gson's own enum
+ * adapter would not match against the constants' names.
+ */
+public class SBinaryDataOpCodeTypeAdapter extends TypeAdapter<SBinaryDataOpCodeType> {
+    @Override
+    public void write(JsonWriter out, SBinaryDataOpCodeType value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(value.getValue());
+    }
+
+    @Override
+    public SBinaryDataOpCodeType read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return SBinaryDataOpCodeType.fromValue(JsonStreams.nextInt(in));
+    }
+}
@@ -132,6 +132,9 @@ public class ConfigModel {
         public boolean relayGuildWarResultsData = true;
         public boolean relayLocationServiceData = true;
         public boolean relayLootPoolData = true;
+
+        @RangeConstraint(min = 0, max = 65536)
+        public int compressionThreshold = 256;
     }
 
     public static class GuildRaidTrackerFeature {
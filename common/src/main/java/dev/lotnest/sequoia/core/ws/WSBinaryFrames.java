@@ -0,0 +1,98 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
+
+import com.google.gson.TypeAdapter;
+import dev.lotnest.sequoia.core.ws.message.WSBinaryPayload;
+import dev.lotnest.sequoia.core.ws.message.WSMessage;
+import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes and decodes messages whose data is a {@link WSBinaryPayload} as binary WebSocket frames, which are only used
+ * once both sides have agreed on them through the {@link #HANDSHAKE_HEADER} header. Every other message is still sent
+ * as JSON text. A frame is laid out as:
+ * <pre>
+ * byte    format version, see {@link #VERSION}
+ * byte    message type, see {@link WSMessageType#getValue()}
+ * int     length of the header in bytes, big-endian
+ * byte[]  header: the message's data as UTF-8 JSON, without its payload
+ * byte[]  payload: the rest of the frame
+ * </pre>
+ */
+public final class WSBinaryFrames {
+    public static final String HANDSHAKE_HEADER = "X-Binary-Frames";
+    public static final int VERSION = 1;
+
+    private static final int PREFIX_LENGTH = Byte.BYTES + Byte.BYTES + Integer.BYTES;
+
+    private WSBinaryFrames() {}
+
+    public static boolean canEncode(WSMessage wsMessage) {
+        return wsMessage.getPayload() instanceof WSBinaryPayload<?>;
+    }
+
+    public static ByteBuffer encode(WSMessage wsMessage) {
+        WSBinaryPayload<?> data = (WSBinaryPayload<?>) wsMessage.getPayload();
+        byte[] header = GSON.toJson(data.withPayload(null)).getBytes(StandardCharsets.UTF_8);
+        byte[] payload = data.payload() != null ? data.payload() : new byte[0];
+
+        ByteBuffer frame = ByteBuffer.allocate(PREFIX_LENGTH + header.length + payload.length);
+        frame.put((byte) VERSION);
+        frame.put((byte) wsMessage.getType());
+        frame.putInt(header.length);
+        frame.put(header);
+        frame.put(payload);
+        return frame.flip();
+    }
+
+    /**
+     * Reads the prefix of a frame, leaving the buffer positioned at its header.
+     *
+     * @return the type of the message in the frame
+     */
+    public static WSMessageType readType(ByteBuffer frame) throws IOException {
+        if (frame.remaining() < PREFIX_LENGTH) {
+            throw new IOException("Binary frame is too short: " + frame.remaining() + " bytes");
+        }
+
+        int version = Byte.toUnsignedInt(frame.get());
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary frame version: " + version);
+        }
+        return WSMessageType.fromValue(Byte.toUnsignedInt(frame.get()));
+    }
+
+    /**
+     * Reads the header and payload of a frame whose prefix was read by {@link #readType(ByteBuffer)}. The payload is
+     * copied out of the frame once, straight into the decoded data.
+     */
+    public static <T> T readData(ByteBuffer frame, TypeAdapter<T> adapter) throws IOException {
+        int headerLength = frame.getInt();
+        if (headerLength < 0 || headerLength > frame.remaining()) {
+            throw new IOException("Invalid binary frame header length: " + headerLength);
+        }
+
+        String header = StandardCharsets.UTF_8
+                .decode(frame.slice(frame.position(), headerLength))
+                .toString();
+        frame.position(frame.position() + headerLength);
+
+        T data = adapter.fromJson(header);
+        if (!(data instanceof WSBinaryPayload<?> binaryPayload)) {
+            throw new IOException("Binary frame data carries no payload: " + data);
+        }
+
+        byte[] payload = new byte[frame.remaining()];
+        frame.get(payload);
+        @SuppressWarnings("unchecked")
+        T dataWithPayload = (T) binaryPayload.withPayload(payload);
+        return dataWithPayload;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import java.util.List;
+
+public record WSConnectionMetrics(
+        WSConnectionState state,
+        long stateMillis,
+        int failedAttempts,
+        long scheduledReconnects,
+        long lastReconnectDelayMillis,
+        List<WSConnectionTransition> recentTransitions) {
+    public String toPrettyString() {
+        StringBuilder builder = new StringBuilder()
+                .append("state=")
+                .append(state)
+                .append(" for ")
+                .append(stateMillis)
+                .append(" ms, failed attempts=")
+                .append(failedAttempts)
+                .append(", scheduled reconnects=")
+                .append(scheduledReconnects)
+                .append(", last reconnect delay=")
+                .append(lastReconnectDelayMillis)
+                .append(" ms");
+        for (WSConnectionTransition transition : recentTransitions) {
+            builder.append("\n  ").append(transition.toPrettyString());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+public enum WSConnectionState {
+    DISCONNECTED,
+    CONNECTING,
+    /**
+     * The connection is open, but the server has not accepted the client's identity yet.
+     */
+    AUTHENTICATING,
+    READY;
+
+    public boolean canTransitionTo(WSConnectionState state) {
+        return switch (this) {
+            case DISCONNECTED -> state == CONNECTING;
+            case CONNECTING -> state == AUTHENTICATING || state == DISCONNECTED;
+            case AUTHENTICATING -> state == READY || state == DISCONNECTED;
+            case READY -> state == AUTHENTICATING || state == DISCONNECTED;
+        };
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import com.google.common.collect.ImmutableList;
+import dev.lotnest.sequoia.SequoiaMod;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracks the state of the WebSocket connection and the recent transitions between states, and decides how long to
+ * wait before reconnecting.
+ * <p>
+ * Reconnect delays use capped exponential backoff with full jitter: each delay is picked at random between zero and a
+ * ceiling that doubles with every attempt that did not lead to a stable connection. When the server restarts, every
+ * client gets disconnected at once, and the randomness spreads their reconnects out instead of having them all
+ * identify at the same moment.
+ */
+public final class WSConnectionStateMachine {
+    private static final Duration BASE_RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofMinutes(5);
+    /**
+     * How long a connection has to stay ready for the backoff to start over, so that a server that accepts
+     * connections only to drop them again is still backed off from.
+     */
+    private static final Duration STABLE_CONNECTION_DURATION = Duration.ofMinutes(1);
+
+    private static final int MAX_RECORDED_TRANSITIONS = 16;
+
+    private final Deque<WSConnectionTransition> transitions = new ArrayDeque<>();
+    private WSConnectionState state = WSConnectionState.DISCONNECTED;
+    private long stateEnteredAt = System.currentTimeMillis();
+    private int failedAttempts;
+    private long scheduledReconnects;
+    private long lastReconnectDelayMillis;
+
+    public synchronized WSConnectionState getState() {
+        return state;
+    }
+
+    /**
+     * Moves to the given state, if the current one allows it.
+     *
+     * @return whether the state changed
+     */
+    public synchronized boolean transitionTo(WSConnectionState nextState, String reason) {
+        if (state == nextState) {
+            return false;
+        }
+        if (!state.canTransitionTo(nextState)) {
+            SequoiaMod.debug(
+                    "Ignoring WebSocket connection transition from " + state + " to " + nextState + ": " + reason);
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        if (state == WSConnectionState.READY && now - stateEnteredAt >= STABLE_CONNECTION_DURATION.toMillis()) {
+            failedAttempts = 0;
+        }
+
+        WSConnectionTransition transition =
+                new WSConnectionTransition(state, nextState, reason, now, now - stateEnteredAt);
+        if (transitions.size() == MAX_RECORDED_TRANSITIONS) {
+            transitions.removeFirst();
+        }
+        transitions.addLast(transition);
+
+        SequoiaMod.debug("WebSocket connection " + transition.toPrettyString());
+        state = nextState;
+        stateEnteredAt = now;
+        return true;
+    }
+
+    /**
+     * Counts a reconnect attempt.
+     *
+     * @return how long to wait before making it
+     */
+    public synchronized Duration nextReconnectDelay() {
+        long ceilingMillis = Math.min(
+                MAX_RECONNECT_DELAY.toMillis(), BASE_RECONNECT_DELAY.toMillis() << Math.min(failedAttempts, 16));
+        failedAttempts++;
+        scheduledReconnects++;
+        lastReconnectDelayMillis = ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+        return Duration.ofMillis(lastReconnectDelayMillis);
+    }
+
+    public synchronized int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    public synchronized WSConnectionMetrics getMetrics() {
+        return new WSConnectionMetrics(
+                state,
+                System.currentTimeMillis() - stateEnteredAt,
+                failedAttempts,
+                scheduledReconnects,
+                lastReconnectDelayMillis,
+                ImmutableList.copyOf(transitions));
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import java.time.Instant;
+
+/**
+ * @param previousStateMillis how long the connection had been in {@code from}
+ */
+public record WSConnectionTransition(
+        WSConnectionState from, WSConnectionState to, String reason, long at, long previousStateMillis) {
+    public String toPrettyString() {
+        return from + " -> " + to + " at " + Instant.ofEpochMilli(at) + " after " + previousStateMillis + " ms ("
+                + reason + ")";
+    }
+}
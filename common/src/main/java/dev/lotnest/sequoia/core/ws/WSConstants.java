@@ -5,14 +5,10 @@
 package dev.lotnest.sequoia.core.ws;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import dev.lotnest.sequoia.core.json.OffsetDateTimeAdapter;
-import java.time.OffsetDateTime;
+import dev.lotnest.sequoia.core.json.JsonConstants;
 
 public final class WSConstants {
-    public static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeAdapter())
-            .create();
+    public static final Gson GSON = JsonConstants.GSON;
 
     private WSConstants() {}
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.Framedata;
+
+/**
+ * Offers the server permessage-deflate compression, falling back to uncompressed frames if it declines, and counts
+ * the traffic in a {@link WSTrafficCounter}.
+ * <p>
+ * The client copies its draft for every connection, and {@link PerMessageDeflateExtension#copyInstance()} does not
+ * keep the compression threshold, so copies are made with a new extension instead.
+ */
+public class WSDeflateDraft extends Draft_6455 {
+    private final int compressionThreshold;
+    private final WSTrafficCounter trafficCounter;
+
+    /**
+     * @param compressionThreshold messages smaller than this many bytes are sent uncompressed, as compressing them
+     *                             saves too little to be worth it
+     */
+    public WSDeflateDraft(int compressionThreshold, WSTrafficCounter trafficCounter) {
+        super(createExtension(compressionThreshold));
+        this.compressionThreshold = compressionThreshold;
+        this.trafficCounter = trafficCounter;
+    }
+
+    private static PerMessageDeflateExtension createExtension(int compressionThreshold) {
+        PerMessageDeflateExtension extension = new PerMessageDeflateExtension();
+        extension.setThreshold(compressionThreshold);
+        return extension;
+    }
+
+    /**
+     * @return whether the server agreed to compress messages on this connection
+     */
+    public boolean isCompressionEnabled() {
+        return getExtension() instanceof PerMessageDeflateExtension;
+    }
+
+    @Override
+    public Draft copyInstance() {
+        return new WSDeflateDraft(compressionThreshold, trafficCounter);
+    }
+
+    @Override
+    public ByteBuffer createBinaryFrame(Framedata framedata) {
+        int messageBytes = framedata.getPayloadData().remaining();
+        ByteBuffer frame = super.createBinaryFrame(framedata);
+        trafficCounter.recordSent(frame.remaining(), messageBytes);
+        return frame;
+    }
+
+    @Override
+    public List<Framedata> translateFrame(ByteBuffer buffer) throws InvalidDataException {
+        int wireBytes = buffer.remaining();
+        List<Framedata> frames = super.translateFrame(buffer);
+
+        long messageBytes = 0;
+        for (Framedata frame : frames) {
+            messageBytes += frame.getPayloadData().remaining();
+        }
+        trafficCounter.recordReceived(frames.size(), wireBytes, messageBytes);
+        return frames;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.ws.handler.WSMessageDispatcher;
+import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves received WebSocket messages off the socket's read thread. Messages are decoded in order on a single worker
+ * thread, and the handling that touches Minecraft is handed to the client thread, which runs it in batches each tick
+ * through {@link #runClientTasks()}.
+ * <p>
+ * Both stages are bounded. When the client thread falls behind, the worker waits for room, and then the read thread
+ * waits for room in turn, so a flood of messages slows down reading from the socket rather than growing the queues.
+ * Messages are never dropped for lack of room, except for {@link #SHEDDABLE_MESSAGE_TYPES}: chat bridge messages that
+ * find the client thread's queue full are shed right away, so that a burst of chat never holds up session, command or
+ * file transfer messages behind it.
+ */
+public final class WSInboundQueue {
+    private static final int MAX_QUEUED_MESSAGES = 256;
+    private static final int MAX_PENDING_CLIENT_TASKS = 256;
+    private static final int MAX_CLIENT_TASKS_PER_TICK = 64;
+    private static final Set<WSMessageType> SHEDDABLE_MESSAGE_TYPES = EnumSet.of(WSMessageType.S_CHANNEL_MESSAGE);
+
+    private final WSMessageDispatcher dispatcher = new WSMessageDispatcher(this::enqueueClientTask);
+    /**
+     * Holds text messages as {@link String}s and binary frames as {@link ByteBuffer}s, so that both are decoded in the
+     * order they were received.
+     */
+    private final BlockingQueue<Object> messages = new ArrayBlockingQueue<>(MAX_QUEUED_MESSAGES);
+
+    private final BlockingQueue<Runnable> clientTasks = new ArrayBlockingQueue<>(MAX_PENDING_CLIENT_TASKS);
+
+    private final AtomicInteger peakQueuedMessages = new AtomicInteger();
+    private final AtomicInteger peakPendingClientTasks = new AtomicInteger();
+    private final AtomicLong receivedMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private final Map<WSMessageType, AtomicLong> shedMessages = new ConcurrentHashMap<>();
+    private final AtomicLong waitedEnqueues = new AtomicLong();
+    private final AtomicLong clientTicksWithBacklog = new AtomicLong();
+
+    public WSInboundQueue() {
+        new ThreadFactoryBuilder()
+                .setNameFormat("sequoia-ws-inbound")
+                .setDaemon(true)
+                .build()
+                .newThread(this::decodeMessages)
+                .start();
+    }
+
+    /**
+     * Queues a received message for decoding. Called from the socket's read thread, which waits for room if the
+     * queue is full.
+     */
+    public void enqueue(String message) {
+        enqueueMessage(message);
+    }
+
+    /**
+     * Queues a received binary frame for decoding, like {@link #enqueue(String)}.
+     */
+    public void enqueue(ByteBuffer frame) {
+        enqueueMessage(frame);
+    }
+
+    /**
+     * Runs the client thread's share of the handling of received messages, a batch at a time. Must be called from
+     * the client thread.
+     */
+    public void runClientTasks() {
+        for (int i = 0; i < MAX_CLIENT_TASKS_PER_TICK; i++) {
+            Runnable clientTask = clientTasks.poll();
+            if (clientTask == null) {
+                return;
+            }
+
+            try {
+                clientTask.run();
+            } catch (RuntimeException exception) {
+                SequoiaMod.error("Failed to handle WebSocket message", exception);
+            }
+        }
+
+        if (!clientTasks.isEmpty()) {
+            clientTicksWithBacklog.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops every message that has not been handled yet, e.g. once the connection is closed.
+     */
+    public void clear() {
+        messages.clear();
+        clientTasks.clear();
+    }
+
+    public WSInboundQueueMetrics getMetrics() {
+        return new WSInboundQueueMetrics(
+                messages.size(),
+                peakQueuedMessages.get(),
+                clientTasks.size(),
+                peakPendingClientTasks.get(),
+                receivedMessages.get(),
+                failedMessages.get(),
+                shedMessages.entrySet().stream()
+                        .collect(ImmutableMap.toImmutableMap(
+                                Map.Entry::getKey, entry -> entry.getValue().get())),
+                waitedEnqueues.get(),
+                clientTicksWithBacklog.get());
+    }
+
+    private void enqueueMessage(Object message) {
+        receivedMessages.incrementAndGet();
+        put(messages, message, peakQueuedMessages);
+    }
+
+    private void decodeMessages() {
+        while (true) {
+            Object message;
+            try {
+                message = messages.take();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            try {
+                switch (message) {
+                    case String text -> dispatcher.dispatch(text);
+                    case ByteBuffer frame -> dispatcher.dispatch(frame);
+                    default -> throw new IllegalStateException("Unexpected message: " + message);
+                }
+            } catch (Exception exception) {
+                failedMessages.incrementAndGet();
+                SequoiaMod.error("Failed to parse WebSocket message: " + message, exception);
+            }
+        }
+    }
+
+    private void enqueueClientTask(WSMessageType wsMessageType, Runnable clientTask) {
+        if (!SHEDDABLE_MESSAGE_TYPES.contains(wsMessageType)) {
+            put(clientTasks, clientTask, peakPendingClientTasks);
+            return;
+        }
+
+        if (clientTasks.offer(clientTask)) {
+            peakPendingClientTasks.accumulateAndGet(clientTasks.size(), Math::max);
+            return;
+        }
+        shedMessages.computeIfAbsent(wsMessageType, type -> new AtomicLong()).incrementAndGet();
+        SequoiaMod.warn("Client thread is not keeping up with WebSocket messages, shedding a " + wsMessageType);
+    }
+
+    /**
+     * Adds an element to the queue, waiting for room if it is full.
+     */
+    private <T> void put(BlockingQueue<T> queue, T element, AtomicInteger peakSize) {
+        try {
+            if (!queue.offer(element)) {
+                waitedEnqueues.incrementAndGet();
+                queue.put(element);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            SequoiaMod.warn("Interrupted while waiting for room in the WebSocket inbound queue");
+            return;
+        }
+
+        peakSize.accumulateAndGet(queue.size(), Math::max);
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import java.util.Map;
+
+public record WSInboundQueueMetrics(
+        int queuedMessages,
+        int peakQueuedMessages,
+        int pendingClientTasks,
+        int peakPendingClientTasks,
+        long receivedMessages,
+        long failedMessages,
+        Map<WSMessageType, Long> shedMessages,
+        long waitedEnqueues,
+        long clientTicksWithBacklog) {
+    public String toPrettyString() {
+        return "queued=" + queuedMessages + " (peak " + peakQueuedMessages + "), client tasks=" + pendingClientTasks
+                + " (peak " + peakPendingClientTasks + "), received=" + receivedMessages + ", failed="
+                + failedMessages + ", shed=" + shedMessages + ", waited=" + waitedEnqueues + ", ticks with backlog="
+                + clientTicksWithBacklog;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import dev.lotnest.sequoia.core.ws.message.WSMessage;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Encodes outgoing WebSocket messages in a single pass. The message's payload is written straight into a buffer that
+ * is reused by each thread, rather than being converted to a {@link com.google.gson.JsonElement} tree first. The output
+ * is the same as {@code GSON.toJson(wsMessage)}.
+ */
+public final class WSMessageEncoder {
+    /**
+     * Buffers that grew larger than this, e.g. for binary data, are not kept around.
+     */
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringWriter> BUFFERS = ThreadLocal.withInitial(StringWriter::new);
+
+    private WSMessageEncoder() {}
+
+    public static String encode(WSMessage wsMessage) {
+        return encode(wsMessage, null);
+    }
+
+    /**
+     * @param id a dedupe ID written next to the message's type and data, or null for none
+     */
+    public static String encode(WSMessage wsMessage, String id) {
+        StringWriter buffer = BUFFERS.get();
+        buffer.getBuffer().setLength(0);
+
+        try {
+            JsonWriter jsonWriter = GSON.newJsonWriter(buffer);
+            jsonWriter.beginObject();
+            jsonWriter.name("type").value(wsMessage.getType());
+            jsonWriter.name("data");
+            writePayload(jsonWriter, wsMessage.getPayload());
+            if (id != null) {
+                jsonWriter.name("id").value(id);
+            }
+            jsonWriter.endObject();
+            jsonWriter.flush();
+        } catch (IOException exception) {
+            throw new JsonIOException(exception);
+        }
+
+        String json = buffer.toString();
+        if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_CAPACITY) {
+            BUFFERS.remove();
+        }
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(JsonWriter jsonWriter, Object payload) throws IOException {
+        if (payload == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+
+        TypeAdapter<Object> adapter = (TypeAdapter<Object>) GSON.getAdapter(payload.getClass());
+        adapter.write(jsonWriter, payload);
+    }
+}
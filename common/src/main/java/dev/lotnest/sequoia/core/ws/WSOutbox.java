@@ -0,0 +1,270 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.ws.message.WSMessage;
+import dev.lotnest.sequoia.managers.AccessTokenManager;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A disk-backed queue of WebSocket messages that must not be lost while the connection is down, such as guild raid
+ * reports. Messages are appended to a segment file with one message per line, which is synced to disk at most once per
+ * {@link #FSYNC_DELAY_MILLIS}, and drained in order once authenticated. Drained messages are removed from the segment
+ * on the same schedule, so a steady stream of messages sent while online costs at most one sync per interval.
+ * <p>
+ * Every queued message carries a unique {@code id} next to its {@code type} and {@code data}, so the server can ignore
+ * messages it sees twice, e.g. when the game closed after a message was sent but before the segment was truncated.
+ * At most {@link #MAX_QUEUED_MESSAGES} messages are kept, dropping the oldest ones first. All file access happens on a
+ * single thread of its own.
+ * <p>
+ * Each message is stored along with the UUID of the player who queued it, and only sent while that player is
+ * authenticated. Messages queued by anyone else stay in the segment until their own player authenticates, so switching
+ * accounts neither sends them on behalf of the wrong player nor loses them. Messages are only ever dropped to stay
+ * within {@link #MAX_QUEUED_MESSAGES}.
+ */
+public final class WSOutbox {
+    private static final String FILE_NAME = "ws_outbox.jsonl";
+    private static final int MAX_QUEUED_MESSAGES = 1000;
+    private static final long FSYNC_DELAY_MILLIS = 1000;
+
+    private final Path path = Path.of(AccessTokenManager.BASE_FOLDER_PATH, FILE_NAME);
+    private final Deque<Entry> messages = new ArrayDeque<>();
+    private final ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(
+            1,
+            new ThreadFactoryBuilder()
+                    .setNameFormat("sequoia-ws-outbox")
+                    .setDaemon(true)
+                    .build());
+    private FileChannel channel;
+    private boolean loaded;
+    private boolean fsyncScheduled;
+    private boolean rewriteNeeded;
+
+    /**
+     * Queues a message, tagged with a new dedupe ID.
+     *
+     * @param playerUuid the UUID of the player the message is sent for
+     */
+    public void enqueue(WSMessage wsMessage, String playerUuid) {
+        Entry entry = new Entry(
+                playerUuid, WSMessageEncoder.encode(wsMessage, UUID.randomUUID().toString()));
+        executor.execute(() -> append(entry));
+    }
+
+    /**
+     * Sends the messages queued for the given player in order, until the sender returns false for one of them.
+     * Messages queued for other players are skipped and kept.
+     */
+    public void drain(String playerUuid, Predicate<String> sender) {
+        executor.execute(() -> drainNow(playerUuid, sender));
+    }
+
+    private void append(Entry entry) {
+        ensureLoaded();
+
+        messages.addLast(entry);
+        if (messages.size() > MAX_QUEUED_MESSAGES) {
+            messages.removeFirst();
+            SequoiaMod.warn("WebSocket outbox is full, dropped the oldest message");
+            rewriteNeeded = true;
+            scheduleFsync();
+            return;
+        }
+
+        try {
+            getChannel().write(ByteBuffer.wrap((entry.toLine() + "\n").getBytes(StandardCharsets.UTF_8)));
+            scheduleFsync();
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to append to WebSocket outbox " + path, exception);
+        }
+    }
+
+    private void drainNow(String playerUuid, Predicate<String> sender) {
+        ensureLoaded();
+
+        int sentMessages = 0;
+        int skippedMessages = 0;
+        Iterator<Entry> iterator = messages.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.playerUuid().equals(playerUuid)) {
+                skippedMessages++;
+                continue;
+            }
+            if (!sender.test(entry.message())) {
+                break;
+            }
+            iterator.remove();
+            sentMessages++;
+        }
+
+        if (sentMessages > 0) {
+            SequoiaMod.debug("Sent " + sentMessages + " queued WebSocket messages, " + messages.size() + " remaining");
+            rewriteNeeded = true;
+            scheduleFsync();
+        }
+        if (skippedMessages > 0) {
+            SequoiaMod.debug("Kept " + skippedMessages + " WebSocket messages queued for another player");
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            boolean hasInvalidLines = false;
+            for (String line : lines) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    messages.addLast(entry);
+                } else {
+                    hasInvalidLines = true;
+                }
+            }
+            while (messages.size() > MAX_QUEUED_MESSAGES) {
+                messages.removeFirst();
+                hasInvalidLines = true;
+            }
+            SequoiaMod.debug("Loaded " + messages.size() + " queued WebSocket messages from " + path);
+
+            // A line cut short by a crash, or without a player, is dropped, so later appends start on a new line
+            if (hasInvalidLines) {
+                rewrite();
+            }
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to load WebSocket outbox from " + path, exception);
+        }
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(path.getParent());
+            channel = FileChannel.open(
+                    path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void scheduleFsync() {
+        if (fsyncScheduled) {
+            return;
+        }
+        fsyncScheduled = true;
+
+        executor.schedule(this::fsync, FSYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void fsync() {
+        fsyncScheduled = false;
+        if (rewriteNeeded) {
+            rewriteNeeded = false;
+            rewrite();
+            return;
+        }
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.force(false);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to sync WebSocket outbox " + path, exception);
+        }
+    }
+
+    /**
+     * Replaces the segment with the messages still queued, and syncs it to disk.
+     */
+    private void rewrite() {
+        try {
+            if (messages.isEmpty()) {
+                getChannel().truncate(0);
+                getChannel().force(false);
+                return;
+            }
+
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+
+            Path temporaryPath = path.resolveSibling(FILE_NAME + ".tmp");
+            try (FileChannel temporaryChannel = FileChannel.open(
+                    temporaryPath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                StringBuilder content = new StringBuilder();
+                messages.forEach(entry -> content.append(entry.toLine()).append('\n'));
+                temporaryChannel.write(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8)));
+                temporaryChannel.force(false);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to rewrite WebSocket outbox " + path, exception);
+        }
+    }
+
+    /**
+     * A queued message, stored on disk as one line of {@code {"player_uuid": ..., "message": {...}}}.
+     */
+    private record Entry(String playerUuid, String message) {
+        private String toLine() {
+            return "{\"player_uuid\":" + WSConstants.GSON.toJson(playerUuid) + ",\"message\":" + message + "}";
+        }
+
+        /**
+         * @return the entry stored in the line, or null if the line is not a valid entry
+         */
+        private static Entry parse(String line) {
+            try {
+                JsonElement element = JsonParser.parseString(line);
+                if (!element.isJsonObject()) {
+                    return null;
+                }
+
+                JsonObject object = element.getAsJsonObject();
+                JsonElement playerUuid = object.get("player_uuid");
+                JsonElement message = object.get("message");
+                if (playerUuid == null || !playerUuid.isJsonPrimitive() || message == null || !message.isJsonObject()) {
+                    return null;
+                }
+                return new Entry(playerUuid.getAsString(), message.toString());
+            } catch (JsonParseException exception) {
+                return null;
+            }
+        }
+    }
+}
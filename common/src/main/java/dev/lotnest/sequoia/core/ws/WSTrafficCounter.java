@@ -0,0 +1,42 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes sent and received over the WebSocket connection, both as they went over the wire and as the
+ * messages they carried, so that how much compression saves can be seen. Counts are kept across reconnects.
+ */
+public final class WSTrafficCounter {
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong sentMessageBytes = new AtomicLong();
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong receivedMessageBytes = new AtomicLong();
+
+    void recordSent(long wireBytes, long messageBytes) {
+        sentFrames.incrementAndGet();
+        sentBytes.addAndGet(wireBytes);
+        sentMessageBytes.addAndGet(messageBytes);
+    }
+
+    void recordReceived(int frames, long wireBytes, long messageBytes) {
+        receivedFrames.addAndGet(frames);
+        receivedBytes.addAndGet(wireBytes);
+        receivedMessageBytes.addAndGet(messageBytes);
+    }
+
+    public WSTrafficMetrics getMetrics() {
+        return new WSTrafficMetrics(
+                sentFrames.get(),
+                sentBytes.get(),
+                sentMessageBytes.get(),
+                receivedFrames.get(),
+                receivedBytes.get(),
+                receivedMessageBytes.get());
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws;
+
+public record WSTrafficMetrics(
+        long sentFrames,
+        long sentBytes,
+        long sentMessageBytes,
+        long receivedFrames,
+        long receivedBytes,
+        long receivedMessageBytes) {
+    public String toPrettyString() {
+        return "sent=" + sentFrames + " frames, " + sentBytes + " bytes (" + sentMessageBytes + " uncompressed, "
+                + getRatio(sentBytes, sentMessageBytes) + "), received=" + receivedFrames + " frames, "
+                + receivedBytes + " bytes (" + receivedMessageBytes + " uncompressed, "
+                + getRatio(receivedBytes, receivedMessageBytes) + ")";
+    }
+
+    private static String getRatio(long wireBytes, long messageBytes) {
+        return messageBytes > 0 ? Math.round(wireBytes * 100.0 / messageBytes) + "%" : "n/a";
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws.handler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.json.JsonStreams;
+import dev.lotnest.sequoia.core.ws.WSBinaryFrames;
+import dev.lotnest.sequoia.core.ws.WSConstants;
+import dev.lotnest.sequoia.core.ws.handler.ws.SBinaryDataWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.handler.ws.SChannelMessageWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.handler.ws.SCommandPipeWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.handler.ws.SMessageWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.handler.ws.SSessionResultWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Dispatches received WebSocket messages to the handler registered for their type. Each message is tokenized once:
+ * its {@code type} is read first, and its {@code data} is decoded straight into the type the handler expects, without
+ * building a {@link JsonElement} tree in between. Only messages whose {@code data} comes before their {@code type}
+ * are buffered as a tree. Handlers run once the whole message has been read, on the client thread unless they
+ * don't need it.
+ */
+public final class WSMessageDispatcher {
+    private final Map<WSMessageType, Registration<?>> registrations = new EnumMap<>(WSMessageType.class);
+    private final Gson gson;
+    private final BiConsumer<WSMessageType, Runnable> clientThreadExecutor;
+
+    /**
+     * @param clientThreadExecutor runs the handlers that need the client thread, given the type of message they handle
+     */
+    public WSMessageDispatcher(BiConsumer<WSMessageType, Runnable> clientThreadExecutor) {
+        this(WSConstants.GSON, clientThreadExecutor);
+    }
+
+    /**
+     * @param gson                 decodes the messages' data, e.g. to compare adapters in benchmarks
+     * @param clientThreadExecutor runs the handlers that need the client thread, given the type of message they handle
+     */
+    public WSMessageDispatcher(Gson gson, BiConsumer<WSMessageType, Runnable> clientThreadExecutor) {
+        this.gson = gson;
+        this.clientThreadExecutor = clientThreadExecutor;
+        register(WSMessageType.S_CHANNEL_MESSAGE, new SChannelMessageWSMessageHandler());
+        register(WSMessageType.S_SESSION_RESULT, new SSessionResultWSMessageHandler());
+        register(WSMessageType.S_MESSAGE, new SMessageWSMessageHandler());
+        register(WSMessageType.S_COMMAND_PIPE, new SCommandPipeWSMessageHandler());
+        register(WSMessageType.S_BINARY_DATA, new SBinaryDataWSMessageHandler());
+    }
+
+    private <T> void register(WSMessageType wsMessageType, WSMessageHandler<T> handler) {
+        registrations.put(wsMessageType, new Registration<>(gson.getAdapter(handler.getDataType()), handler));
+    }
+
+    public void dispatch(String message) throws IOException {
+        WSMessageType wsMessageType = WSMessageType.INVALID;
+        JsonElement bufferedData = null;
+        Registration<?> decodedRegistration = null;
+        Runnable decodedHandling = null;
+
+        JsonReader jsonReader = new JsonReader(new StringReader(message));
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "type" -> wsMessageType = WSMessageType.fromValue(JsonStreams.nextInt(jsonReader));
+                case "data" -> {
+                    Registration<?> registration = registrations.get(wsMessageType);
+                    if (registration != null) {
+                        decodedRegistration = registration;
+                        decodedHandling = registration.decode(jsonReader);
+                    } else if (wsMessageType == WSMessageType.INVALID) {
+                        bufferedData = gson.getAdapter(JsonElement.class).read(jsonReader);
+                    } else {
+                        jsonReader.skipValue();
+                    }
+                }
+                default -> jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        if (decodedHandling != null) {
+            handle(wsMessageType, decodedRegistration, decodedHandling);
+            return;
+        }
+
+        Registration<?> registration = registrations.get(wsMessageType);
+        if (registration == null) {
+            SequoiaMod.warn("Unhandled WebSocket message type: " + wsMessageType);
+            return;
+        }
+        handle(
+                wsMessageType,
+                registration,
+                registration.decode(bufferedData != null ? bufferedData : JsonNull.INSTANCE));
+    }
+
+    /**
+     * Dispatches a binary frame, see {@link WSBinaryFrames}.
+     */
+    public void dispatch(ByteBuffer frame) throws IOException {
+        WSMessageType wsMessageType = WSBinaryFrames.readType(frame);
+        Registration<?> registration = registrations.get(wsMessageType);
+        if (registration == null) {
+            SequoiaMod.warn("Unhandled binary WebSocket message type: " + wsMessageType);
+            return;
+        }
+        handle(wsMessageType, registration, registration.decode(frame));
+    }
+
+    private void handle(WSMessageType wsMessageType, Registration<?> registration, Runnable handling) {
+        if (registration.handler().runsOnClientThread()) {
+            clientThreadExecutor.accept(wsMessageType, handling);
+        } else {
+            handling.run();
+        }
+    }
+
+    private record Registration<T>(TypeAdapter<T> adapter, WSMessageHandler<T> handler) {
+        private Runnable decode(JsonReader jsonReader) throws IOException {
+            T data = adapter.read(jsonReader);
+            return () -> handler.handle(data);
+        }
+
+        private Runnable decode(JsonElement jsonElement) {
+            T data = adapter.fromJsonTree(jsonElement);
+            return () -> handler.handle(data);
+        }
+
+        private Runnable decode(ByteBuffer frame) throws IOException {
+            T data = WSBinaryFrames.readData(frame, adapter);
+            return () -> handler.handle(data);
+        }
+    }
+}
@@ -4,16 +4,28 @@
  */
 package dev.lotnest.sequoia.core.ws.handler;
 
-import dev.lotnest.sequoia.core.ws.message.WSMessage;
+/**
+ * Handles the decoded {@code data} of one type of WebSocket message. Handlers are registered once with the
+ * {@link WSMessageDispatcher}, which decodes each message's data straight into {@link #getDataType()}.
+ */
+public abstract class WSMessageHandler<T> {
+    private final Class<T> dataType;
+
+    protected WSMessageHandler(Class<T> dataType) {
+        this.dataType = dataType;
+    }
 
-public abstract class WSMessageHandler {
-    protected final WSMessage wsMessage;
-    protected String message;
+    public Class<T> getDataType() {
+        return dataType;
+    }
 
-    protected WSMessageHandler(WSMessage wsMessage, String message) {
-        this.wsMessage = wsMessage;
-        this.message = message;
+    /**
+     * @return whether {@link #handle(Object)} touches Minecraft and must run on the client thread, rather than on the
+     *     thread decoding messages
+     */
+    public boolean runsOnClientThread() {
+        return true;
     }
 
-    public abstract void handle();
+    public abstract void handle(T data);
 }
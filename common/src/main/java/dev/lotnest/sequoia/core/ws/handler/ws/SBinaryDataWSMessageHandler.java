@@ -4,23 +4,23 @@
  */
 package dev.lotnest.sequoia.core.ws.handler.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.ws.handler.WSMessageHandler;
 import dev.lotnest.sequoia.core.ws.message.ws.binary.SBinaryDataWSMessage;
 
-public class SBinaryDataWSMessageHandler extends WSMessageHandler {
-    public SBinaryDataWSMessageHandler(String message) {
-        super(GSON.fromJson(message, SBinaryDataWSMessage.class), message);
+public class SBinaryDataWSMessageHandler extends WSMessageHandler<SBinaryDataWSMessage.Data> {
+    public SBinaryDataWSMessageHandler() {
+        super(SBinaryDataWSMessage.Data.class);
     }
 
     @Override
-    public void handle() {
-        SBinaryDataWSMessage sBinaryDataWSMessage = GSON.fromJson(message, SBinaryDataWSMessage.class);
-        SBinaryDataWSMessage.Data sBinaryDataWSMessageData = sBinaryDataWSMessage.getSBinaryData();
+    public boolean runsOnClientThread() {
+        return false;
+    }
 
-        // TODO: Handle SBinary data
-        SequoiaMod.debug("Received SBinaryData: " + sBinaryDataWSMessageData);
+    @Override
+    public void handle(SBinaryDataWSMessage.Data sBinaryDataWSMessageData) {
+        // Runs on the inbound queue's single worker thread, so frames reach the receiver in order
+        SequoiaMod.getWebSocketFeature().getFileTransferReceiver().receive(sBinaryDataWSMessageData);
     }
 }
@@ -4,8 +4,6 @@
  */
 package dev.lotnest.sequoia.core.ws.handler.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.wynntils.models.guild.type.GuildRank;
 import com.wynntils.utils.mc.McUtils;
 import dev.lotnest.sequoia.SequoiaMod;
@@ -16,18 +14,15 @@ import java.util.Locale;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 
-public class SChannelMessageWSMessageHandler extends WSMessageHandler {
-    public SChannelMessageWSMessageHandler(String message) {
-        super(GSON.fromJson(message, SChannelMessageWSMessage.class), message);
+public class SChannelMessageWSMessageHandler extends WSMessageHandler<SChannelMessageWSMessage.Data> {
+    public SChannelMessageWSMessageHandler() {
+        super(SChannelMessageWSMessage.Data.class);
     }
 
     @Override
-    public void handle() {
+    public void handle(SChannelMessageWSMessage.Data sChannelMessageWSMessageData) {
         if (SequoiaMod.CONFIG.discordChatBridgeFeature.enabled()
                 && SequoiaMod.CONFIG.discordChatBridgeFeature.sendDiscordMessagesToInGameChat()) {
-            SChannelMessageWSMessage sChannelMessageWSMessage = (SChannelMessageWSMessage) wsMessage;
-            SChannelMessageWSMessage.Data sChannelMessageWSMessageData =
-                    sChannelMessageWSMessage.getSChannelMessageData();
             String[] displayNameSplit =
                     sChannelMessageWSMessageData.displayName().split(" ");
             String playerName = displayNameSplit.length > 1 ? displayNameSplit[1] : displayNameSplit[0];
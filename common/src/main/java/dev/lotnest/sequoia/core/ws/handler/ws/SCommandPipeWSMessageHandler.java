@@ -4,27 +4,24 @@
  */
 package dev.lotnest.sequoia.core.ws.handler.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
+import com.google.gson.JsonElement;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.ws.handler.WSMessageHandler;
-import dev.lotnest.sequoia.core.ws.message.ws.SCommandPipeWSMessage;
 import org.apache.commons.lang3.StringUtils;
 
-public class SCommandPipeWSMessageHandler extends WSMessageHandler {
-    public SCommandPipeWSMessageHandler(String message) {
-        super(GSON.fromJson(message, SCommandPipeWSMessage.class), message);
+public class SCommandPipeWSMessageHandler extends WSMessageHandler<JsonElement> {
+    public SCommandPipeWSMessageHandler() {
+        super(JsonElement.class);
     }
 
     @Override
-    public void handle() {
-        if (StringUtils.equals("Invalid token", wsMessage.getData().getAsString())) {
+    public void handle(JsonElement data) {
+        if (StringUtils.equals("Invalid token", data.getAsString())) {
             SequoiaMod.debug("Received invalid token response. Requesting a new token.");
             SequoiaMod.getWebSocketFeature().authenticate(true);
-        } else if (StringUtils.equals("Authenticated.", wsMessage.getData().getAsString())) {
+        } else if (StringUtils.equals("Authenticated.", data.getAsString())) {
             SequoiaMod.debug("Authenticated with WebSocket server.");
-            SequoiaMod.getWebSocketFeature().setAuthenticating(false);
-            SequoiaMod.getWebSocketFeature().setAuthenticated(true);
+            SequoiaMod.getWebSocketFeature().setAuthenticated();
         }
     }
 }
@@ -4,13 +4,10 @@
  */
 package dev.lotnest.sequoia.core.ws.handler.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.JsonElement;
 import com.wynntils.utils.mc.McUtils;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.ws.handler.WSMessageHandler;
-import dev.lotnest.sequoia.core.ws.message.ws.SMessageWSMessage;
 import dev.lotnest.sequoia.utils.URLUtils;
 import java.util.regex.Matcher;
 import net.minecraft.network.chat.ClickEvent;
@@ -19,21 +16,18 @@ import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
 import org.apache.commons.lang3.StringUtils;
 
-public class SMessageWSMessageHandler extends WSMessageHandler {
-    public SMessageWSMessageHandler(String message) {
-        super(GSON.fromJson(message, SMessageWSMessage.class), message);
+public class SMessageWSMessageHandler extends WSMessageHandler<JsonElement> {
+    public SMessageWSMessageHandler() {
+        super(JsonElement.class);
     }
 
     @Override
-    public void handle() {
-        SMessageWSMessage sMessageWSMessage = (SMessageWSMessage) wsMessage;
-        JsonElement sMessageWSMessageData = sMessageWSMessage.getData();
-
+    public void handle(JsonElement sMessageWSMessageData) {
         if (sMessageWSMessageData.isJsonPrimitive()) {
             String serverMessageText = sMessageWSMessageData.getAsString();
             if (StringUtils.equals(serverMessageText, "Authentication required.")) {
                 SequoiaMod.debug("Received authentication required message, reauthenticating.");
-                SequoiaMod.getWebSocketFeature().authenticate();
+                SequoiaMod.getWebSocketFeature().requireReauthentication();
                 return;
             }
 
@@ -4,21 +4,34 @@
  */
 package dev.lotnest.sequoia.core.ws.message;
 
+import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
+
 import com.google.gson.JsonElement;
-import com.google.gson.annotations.SerializedName;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+/**
+ * Read and written by {@link dev.lotnest.sequoia.core.json.IStateOpCodeTypeAdapterFactory}, which writes the payload
+ * directly instead of going through {@link #getData()}.
+ */
 public class IStateOpCode {
-    @SerializedName("op_code")
     private final int opCode;
-
-    private final JsonElement data;
+    private JsonElement data;
+    private final transient Object payload;
 
     public IStateOpCode(int opCode, JsonElement data) {
         this.opCode = opCode;
         this.data = data;
+        this.payload = data;
+    }
+
+    /**
+     * Creates an op code from data that is only converted to a {@link JsonElement} if {@link #getData()} is called.
+     */
+    protected IStateOpCode(int opCode, Object payload) {
+        this.opCode = opCode;
+        this.payload = payload;
     }
 
     public int getOpCode() {
@@ -26,9 +39,19 @@ public class IStateOpCode {
     }
 
     public JsonElement getData() {
+        if (data == null && payload != null) {
+            data = GSON.toJsonTree(payload);
+        }
         return data;
     }
 
+    /**
+     * @return the data the op code was created from, either a {@link JsonElement} or the object it was converted from
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -39,20 +62,20 @@ public class IStateOpCode {
 
         return new EqualsBuilder()
                 .append(opCode, wsMessage.opCode)
-                .append(data, wsMessage.data)
+                .append(getData(), wsMessage.getData())
                 .isEquals();
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37).append(opCode).append(data).toHashCode();
+        return new HashCodeBuilder(17, 37).append(opCode).append(getData()).toHashCode();
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
                 .append("type", opCode)
-                .append("data", data)
+                .append("data", getData())
                 .toString();
     }
 }
@@ -0,0 +1,17 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws.message;
+
+/**
+ * Message data that carries a raw payload. Over a connection that negotiated binary frames, the payload is sent as is
+ * after the rest of the data, instead of as a JSON array of numbers.
+ *
+ * @see dev.lotnest.sequoia.core.ws.WSBinaryFrames
+ */
+public interface WSBinaryPayload<T extends WSBinaryPayload<T>> {
+    byte[] payload();
+
+    T withPayload(byte[] payload);
+}
@@ -4,18 +4,33 @@
  */
 package dev.lotnest.sequoia.core.ws.message;
 
+import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
+
 import com.google.gson.JsonElement;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+@GenerateTypeAdapter
 public class WSMessage {
     private final int type;
-    private final JsonElement data;
+    private JsonElement data;
+    private final transient Object payload;
 
     public WSMessage(int type, JsonElement data) {
         this.type = type;
         this.data = data;
+        this.payload = data;
+    }
+
+    /**
+     * Creates a message from data that is only converted to a {@link JsonElement} if {@link #getData()} is called.
+     * Sending the message writes the data directly, see {@link dev.lotnest.sequoia.core.ws.WSMessageEncoder}.
+     */
+    protected WSMessage(int type, Object payload) {
+        this.type = type;
+        this.payload = payload;
     }
 
     public int getType() {
@@ -23,9 +38,19 @@ public class WSMessage {
     }
 
     public JsonElement getData() {
+        if (data == null && payload != null) {
+            data = GSON.toJsonTree(payload);
+        }
         return data;
     }
 
+    /**
+     * @return the data the message was created from, either a {@link JsonElement} or the object it was converted from
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -36,20 +61,20 @@ public class WSMessage {
 
         return new EqualsBuilder()
                 .append(type, wsMessage.type)
-                .append(data, wsMessage.data)
+                .append(getData(), wsMessage.getData())
                 .isEquals();
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37).append(type).append(data).toHashCode();
+        return new HashCodeBuilder(17, 37).append(type).append(getData()).toHashCode();
     }
 
     @Override
     public String toString() {
         return new ToStringBuilder(this)
                 .append("type", type)
-                .append("data", data)
+                .append("data", getData())
                 .toString();
     }
 }
@@ -4,9 +4,8 @@
  */
 package dev.lotnest.sequoia.core.ws.message.istateopcodes;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
 import dev.lotnest.sequoia.core.ws.type.IStateOpCodeType;
 import java.time.OffsetDateTime;
@@ -14,14 +13,18 @@ import java.util.Map;
 
 public class GuildMapDataIStateOpCode extends IStateOpCode {
     public GuildMapDataIStateOpCode(Data data) {
-        super(IStateOpCodeType.GUILD_MAP.getValue(), GSON.toJsonTree(data));
+        super(IStateOpCodeType.GUILD_MAP.getValue(), data);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             @SerializedName("territory_data") Map<String, TerritoryData> territoryData, OffsetDateTime timestamp) {
+        @GenerateTypeAdapter
         public record TerritoryData(String guild, String tag, byte treasury, Stored stored, Generation generation) {
+            @GenerateTypeAdapter
             public record Stored(String guild, long emeralds, long ore, long wood, long crop, long fish) {}
 
+            @GenerateTypeAdapter
             public record Generation(String guild, long emeralds, long ore, long wood, long crop, long fish) {}
         }
     }
@@ -4,9 +4,8 @@
  */
 package dev.lotnest.sequoia.core.ws.message.istateopcodes;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
 import dev.lotnest.sequoia.core.ws.type.IStateOpCodeType;
 import java.util.Arrays;
@@ -14,9 +13,10 @@ import java.util.Objects;
 
 public class GuildWarResultsDataIStateOpCode extends IStateOpCode {
     public GuildWarResultsDataIStateOpCode(Data data) {
-        super(IStateOpCodeType.GUILD_WAR_RESULTS.getValue(), GSON.toJsonTree(data));
+        super(IStateOpCodeType.GUILD_WAR_RESULTS.getValue(), data);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             String territory,
             @SerializedName("guild_war_members") String[] guildWarUsernames,
@@ -49,6 +49,7 @@ public class GuildWarResultsDataIStateOpCode extends IStateOpCode {
                     + results + '}';
         }
 
+        @GenerateTypeAdapter
         public record Results(int damage, double attack, int health, @SerializedName("defence") double defenceRatio) {}
     }
 }
@@ -4,15 +4,15 @@
  */
 package dev.lotnest.sequoia.core.ws.message.istateopcodes;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
 import dev.lotnest.sequoia.core.ws.type.IStateOpCodeType;
 
 public class LocationServiceDataIStateOpCode extends IStateOpCode {
     public LocationServiceDataIStateOpCode(Data data) {
-        super(IStateOpCodeType.LOCATION_SERVICE.getValue(), GSON.toJsonTree(data));
+        super(IStateOpCodeType.LOCATION_SERVICE.getValue(), data);
     }
 
+    @GenerateTypeAdapter
     public record Data(int x, int z, String server) {}
 }
@@ -4,10 +4,9 @@
  */
 package dev.lotnest.sequoia.core.ws.message.istateopcodes;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.JsonElement;
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
 import dev.lotnest.sequoia.core.ws.type.IStateOpCodeType;
 import java.util.Arrays;
@@ -16,9 +15,10 @@ import org.apache.commons.lang3.StringUtils;
 
 public class LootPoolDataIStateOpCode extends IStateOpCode {
     public LootPoolDataIStateOpCode(Data data) {
-        super(IStateOpCodeType.LOOT_POOL.getValue(), GSON.toJsonTree(data));
+        super(IStateOpCodeType.LOOT_POOL.getValue(), data);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             LootPoolKind kind, String name, @SerializedName("lootpool") JsonElement entries, String[] gambit) {
         @Override
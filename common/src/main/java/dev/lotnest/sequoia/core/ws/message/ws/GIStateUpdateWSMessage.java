@@ -4,17 +4,17 @@
  */
 package dev.lotnest.sequoia.core.ws.message.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.IStateOpCode;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 
 public class GIStateUpdateWSMessage extends WSMessage {
     public GIStateUpdateWSMessage(Data data) {
-        super(WSMessageType.G_I_STATE_UPDATE.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.G_I_STATE_UPDATE.getValue(), data);
     }
 
+    @GenerateTypeAdapter
     public record Data(@SerializedName("state_data") IStateOpCode iStateOpCode) {}
 }
@@ -4,14 +4,12 @@
  */
 package dev.lotnest.sequoia.core.ws.message.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 import dev.lotnest.sequoia.features.guildraidtracker.GuildRaid;
 
 public class GuildRaidWSMessage extends WSMessage {
     public GuildRaidWSMessage(GuildRaid guildRaid) {
-        super(WSMessageType.G_RAID_SUBMISSION.getValue(), GSON.toJsonTree(guildRaid));
+        super(WSMessageType.G_RAID_SUBMISSION.getValue(), guildRaid);
     }
 }
@@ -7,6 +7,8 @@ package dev.lotnest.sequoia.core.ws.message.ws.binary;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
+import dev.lotnest.sequoia.core.ws.message.WSBinaryPayload;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.SBinaryDataOpCodeType;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
@@ -15,13 +17,14 @@ import java.util.Arrays;
 
 public class SBinaryDataWSMessage extends WSMessage {
     public SBinaryDataWSMessage(Data data) {
-        super(WSMessageType.S_BINARY_DATA.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.S_BINARY_DATA.getValue(), data);
     }
 
     public Data getSBinaryData() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             @SerializedName("transfer_id") String transferId,
             @SerializedName("protocol_version") int protocolVersion,
@@ -36,7 +39,27 @@ public class SBinaryDataWSMessage extends WSMessage {
             byte[] payload,
             @SerializedName("total_hash") String totalHash,
             OffsetDateTime timestamp,
-            SBinaryDataError[] errors) {
+            SBinaryDataError[] errors)
+            implements WSBinaryPayload<Data> {
+        @Override
+        public Data withPayload(byte[] payload) {
+            return new Data(
+                    transferId,
+                    protocolVersion,
+                    opCode,
+                    header,
+                    metadata,
+                    alignment,
+                    sequence,
+                    done,
+                    remaining,
+                    frameHash,
+                    payload,
+                    totalHash,
+                    timestamp,
+                    errors);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (o == null || getClass() != o.getClass()) return false;
@@ -85,6 +108,7 @@ public class SBinaryDataWSMessage extends WSMessage {
         }
     }
 
+    @GenerateTypeAdapter
     public record Metadata(String filename, int length, @SerializedName("mime_type") String mimeType) {
         @Override
         public boolean equals(Object o) {
@@ -107,6 +131,7 @@ public class SBinaryDataWSMessage extends WSMessage {
         }
     }
 
+    @GenerateTypeAdapter
     public record Alignment(int offset, int length) {
         @Override
         public boolean equals(Object o) {
@@ -126,5 +151,6 @@ public class SBinaryDataWSMessage extends WSMessage {
         }
     }
 
+    @GenerateTypeAdapter
     public record SBinaryDataError(int sequence, int error, @SerializedName("error_string") String errorString) {}
 }
@@ -7,18 +7,20 @@ package dev.lotnest.sequoia.core.ws.message.ws.discordchatbridge;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 
 public class GChatMessageWSMessage extends WSMessage {
     public GChatMessageWSMessage(Data data) {
-        super(WSMessageType.G_CHAT_MESSAGE.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.G_CHAT_MESSAGE.getValue(), data);
     }
 
     public Data getChatMessage() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             String username,
             String nickname,
@@ -7,6 +7,7 @@ package dev.lotnest.sequoia.core.ws.message.ws.discordchatbridge;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 import java.time.OffsetDateTime;
@@ -15,13 +16,14 @@ import java.util.Objects;
 
 public class SChannelMessageWSMessage extends WSMessage {
     public SChannelMessageWSMessage(Data data) {
-        super(WSMessageType.S_CHANNEL_MESSAGE.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.S_CHANNEL_MESSAGE.getValue(), data);
     }
 
     public Data getSChannelMessageData() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             String username,
             String nickname,
@@ -7,6 +7,8 @@ package dev.lotnest.sequoia.core.ws.message.ws.ic3;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
+import dev.lotnest.sequoia.core.ws.message.WSBinaryPayload;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 import java.util.Arrays;
@@ -14,15 +16,22 @@ import java.util.Objects;
 
 public class GIC3HWSMessage extends WSMessage {
     public GIC3HWSMessage(Data data) {
-        super(WSMessageType.G_IC3H.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.G_IC3H.getValue(), data);
     }
 
     public Data getGIC3HData() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
-            @SerializedName("op_code") int opCode, int sequence, String method, byte[] payload, String[] target) {
+            @SerializedName("op_code") int opCode, int sequence, String method, byte[] payload, String[] target)
+            implements WSBinaryPayload<Data> {
+        @Override
+        public Data withPayload(byte[] payload) {
+            return new Data(opCode, sequence, method, payload, target);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (o == null || getClass() != o.getClass()) return false;
@@ -7,6 +7,8 @@ package dev.lotnest.sequoia.core.ws.message.ws.ic3;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
+import dev.lotnest.sequoia.core.ws.message.WSBinaryPayload;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 import java.util.Arrays;
@@ -14,15 +16,22 @@ import java.util.Objects;
 
 public class SIC3DataWSMessage extends WSMessage {
     public SIC3DataWSMessage(Data data) {
-        super(WSMessageType.S_IC3_DATA.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.S_IC3_DATA.getValue(), data);
     }
 
     public Data getSIC3Data() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
-            @SerializedName("op_code") int opCode, int sequence, String method, byte[] payload, String origin) {
+            @SerializedName("op_code") int opCode, int sequence, String method, byte[] payload, String origin)
+            implements WSBinaryPayload<Data> {
+        @Override
+        public Data withPayload(byte[] payload) {
+            return new Data(opCode, sequence, method, payload, origin);
+        }
+
         @Override
         public boolean equals(Object o) {
             if (o == null || getClass() != o.getClass()) return false;
@@ -11,7 +11,7 @@ import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 
 public class GAuthWSMessage extends WSMessage {
     public GAuthWSMessage(String data) {
-        super(WSMessageType.G_AUTH.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.G_AUTH.getValue(), data);
     }
 
     public String getCode() {
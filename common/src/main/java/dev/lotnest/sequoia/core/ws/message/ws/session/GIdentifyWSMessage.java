@@ -7,18 +7,20 @@ package dev.lotnest.sequoia.core.ws.message.ws.session;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 
 public class GIdentifyWSMessage extends WSMessage {
     public GIdentifyWSMessage(Data data) {
-        super(WSMessageType.G_IDENTIFY.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.G_IDENTIFY.getValue(), data);
     }
 
     public Data getGIdentifyData() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(
             @SerializedName("access_token") String accessToken,
             String uuid,
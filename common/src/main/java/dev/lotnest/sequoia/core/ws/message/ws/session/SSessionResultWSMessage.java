@@ -7,18 +7,20 @@ package dev.lotnest.sequoia.core.ws.message.ws.session;
 import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
 import dev.lotnest.sequoia.core.ws.type.WSMessageType;
 import java.time.OffsetDateTime;
 
 public class SSessionResultWSMessage extends WSMessage {
     public SSessionResultWSMessage(Data data) {
-        super(WSMessageType.S_SESSION_RESULT.getValue(), GSON.toJsonTree(data));
+        super(WSMessageType.S_SESSION_RESULT.getValue(), data);
     }
 
     public Data getSSessionResultData() {
         return GSON.fromJson(getData(), Data.class);
     }
 
+    @GenerateTypeAdapter
     public record Data(boolean error, String result, @SerializedName("expire_at") OffsetDateTime expireAt) {}
 }
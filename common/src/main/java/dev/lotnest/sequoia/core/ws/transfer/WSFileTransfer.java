@@ -0,0 +1,225 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws.transfer;
+
+import dev.lotnest.sequoia.core.ws.type.SBinaryDataErrorType;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A file being received, written to a preallocated part file next to its target. Frames are written at their offset
+ * as soon as they arrive, in any order. The hash of the whole file is computed as the written bytes become
+ * contiguous, so only frames that arrived ahead of a gap are held on to, and never more than a window of them.
+ */
+final class WSFileTransfer implements Closeable {
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    private final String transferId;
+    private final Path partPath;
+    private final Path targetPath;
+    private final long length;
+    private final int windowSize;
+    private final String totalHash;
+    private final FileChannel channel;
+    private final MessageDigest frameDigest;
+    private final MessageDigest totalDigest;
+    private final BitSet receivedSequences = new BitSet();
+    private final NavigableMap<Long, byte[]> unhashedFrames = new TreeMap<>();
+    private int nextSequence;
+    private int acknowledgedSequence = -1;
+    private long hashedLength;
+    private long lastFrameAt = System.currentTimeMillis();
+
+    private WSFileTransfer(
+            String transferId, Path partPath, Path targetPath, long length, int windowSize, String totalHash)
+            throws IOException {
+        this.transferId = transferId;
+        this.partPath = partPath;
+        this.targetPath = targetPath;
+        this.length = length;
+        this.windowSize = windowSize;
+        this.totalHash = totalHash;
+
+        try {
+            frameDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+            totalDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+
+        channel = FileChannel.open(
+                partPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (length > 0) {
+                // Extends the file to its full length up front, so that frames can be written anywhere in it
+                channel.write(ByteBuffer.allocate(1), length - 1);
+            }
+        } catch (IOException exception) {
+            close();
+            throw exception;
+        }
+    }
+
+    /**
+     * @param totalHash the expected hash of the whole file, or null if it is only sent with the last frame
+     */
+    static WSFileTransfer open(
+            String transferId, Path directory, String fileName, long length, int windowSize, String totalHash)
+            throws IOException {
+        Files.createDirectories(directory);
+        return new WSFileTransfer(
+                transferId,
+                directory.resolve(transferId + ".part"),
+                directory.resolve(fileName),
+                length,
+                windowSize,
+                totalHash);
+    }
+
+    String getTransferId() {
+        return transferId;
+    }
+
+    Path getTargetPath() {
+        return targetPath;
+    }
+
+    long getLastFrameAt() {
+        return lastFrameAt;
+    }
+
+    /**
+     * @return the highest sequence up to which every frame has been received, or -1 if none
+     */
+    int getReceivedSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * @return the number of frames received in order since the last {@link #acknowledge()}
+     */
+    int getUnacknowledgedFrames() {
+        return getReceivedSequence() - acknowledgedSequence;
+    }
+
+    void acknowledge() {
+        acknowledgedSequence = getReceivedSequence();
+    }
+
+    /**
+     * @return whether the frame with the given sequence was already received
+     */
+    boolean hasReceived(int sequence) {
+        return sequence < nextSequence || receivedSequences.get(sequence);
+    }
+
+    /**
+     * Verifies a frame and writes it at its offset. Frames that were already received are ignored.
+     *
+     * @return the reason the frame was rejected, or null if it was accepted
+     */
+    SBinaryDataErrorType write(int sequence, long offset, int frameLength, byte[] payload, String frameHash)
+            throws IOException {
+        lastFrameAt = System.currentTimeMillis();
+        if (hasReceived(sequence)) {
+            return null;
+        }
+        if (sequence >= nextSequence + windowSize) {
+            return SBinaryDataErrorType.BAD_SEQUENCE;
+        }
+        if (payload == null || payload.length != frameLength) {
+            return SBinaryDataErrorType.BAD_LENGTH;
+        }
+        if (offset < hashedLength || offset + frameLength > length || overlapsUnhashedFrame(offset, frameLength)) {
+            return SBinaryDataErrorType.BAD_OFFSET;
+        }
+        if (frameHash != null && !isHashEqual(frameDigest.digest(payload), frameHash)) {
+            return SBinaryDataErrorType.BAD_HASH;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+
+        receivedSequences.set(sequence);
+        nextSequence = receivedSequences.nextClearBit(nextSequence);
+        unhashedFrames.put(offset, payload);
+        hashContiguousFrames();
+        return null;
+    }
+
+    /**
+     * Verifies the whole file and moves it to its target.
+     *
+     * @param totalHash the expected hash of the whole file, or null to use the one the transfer was started with
+     * @return the reason the file was rejected, or null if it was accepted
+     */
+    SBinaryDataErrorType finish(String totalHash) throws IOException {
+        if (hashedLength != length) {
+            return SBinaryDataErrorType.BAD_LENGTH;
+        }
+
+        String expectedTotalHash = totalHash != null ? totalHash : this.totalHash;
+        if (expectedTotalHash != null && !isHashEqual(totalDigest.digest(), expectedTotalHash)) {
+            return SBinaryDataErrorType.BAD_TOTAL_HASH;
+        }
+
+        channel.force(false);
+        channel.close();
+        Files.move(partPath, targetPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return null;
+    }
+
+    /**
+     * Abandons the transfer, deleting the part file if it was not moved to its target.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        Files.deleteIfExists(partPath);
+    }
+
+    private void hashContiguousFrames() {
+        while (!unhashedFrames.isEmpty() && unhashedFrames.firstKey() == hashedLength) {
+            Map.Entry<Long, byte[]> frame = unhashedFrames.pollFirstEntry();
+            totalDigest.update(frame.getValue());
+            hashedLength += frame.getValue().length;
+        }
+    }
+
+    private boolean overlapsUnhashedFrame(long offset, int frameLength) {
+        Map.Entry<Long, byte[]> previousFrame = unhashedFrames.floorEntry(offset);
+        if (previousFrame != null && previousFrame.getKey() + previousFrame.getValue().length > offset) {
+            return true;
+        }
+
+        Long nextFrameOffset = unhashedFrames.higherKey(offset);
+        return nextFrameOffset != null && nextFrameOffset < offset + frameLength;
+    }
+
+    private static boolean isHashEqual(byte[] hash, String expectedHash) {
+        return HEX_FORMAT.formatHex(hash).equalsIgnoreCase(expectedHash);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.core.ws.transfer;
+
+import com.google.common.collect.Maps;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.ws.message.ws.binary.SBinaryDataWSMessage;
+import dev.lotnest.sequoia.core.ws.type.SBinaryDataErrorType;
+import dev.lotnest.sequoia.core.ws.type.SBinaryDataOpCodeType;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Receives files sent over {@code S_BINARY_DATA} messages:
+ * <ol>
+ * <li>{@code FILE_TRANSFER_START} announces a file through its metadata. It is answered with
+ * {@code FILE_TRANSFER_READY}, whose {@code remaining} is the number of frames the server may send ahead of the last
+ * acknowledged one.</li>
+ * <li>{@code FILE_TRANSFER_DATA} frames carry the file's bytes at their {@code alignment}, and may arrive out of order
+ * within that window. They are acknowledged with {@code FILE_TRANSFER_ACK}, whose {@code sequence} is the highest
+ * sequence up to which every frame was received, every half window, on the last frame, and whenever a frame arrives
+ * that was already received, since the server only resends frames it has not seen acknowledged. A rejected frame is
+ * acknowledged right away too, with the ACK listing why so that the server can resend it.</li>
+ * <li>{@code FILE_TRANSFER_END} completes the transfer once the whole file was received and its total hash matches,
+ * and is answered with a final ACK.</li>
+ * </ol>
+ * Hashes are hex-encoded SHA-256. Messages are expected to be received in order on a single thread; transfers in
+ * progress can be aborted from any thread once the connection is gone, see {@link #abortAll()}. Part files left
+ * behind by a previous session are deleted before the first message is handled.
+ */
+public final class WSFileTransferReceiver {
+    private static final int PROTOCOL_VERSION = 1;
+    private static final int WINDOW_SIZE = 32;
+    private static final int MAX_TRANSFERS = 4;
+    private static final long MAX_FILE_LENGTH = 256L * 1024 * 1024;
+    private static final Duration TRANSFER_TIMEOUT = Duration.ofMinutes(2);
+    // Transfer IDs name the part files, so they must not be able to point anywhere else
+    private static final Pattern TRANSFER_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final Path directory;
+    private final Consumer<SBinaryDataWSMessage.Data> replySender;
+    private final Map<String, WSFileTransfer> transfers = Maps.newHashMap();
+    private boolean deletedLeftoverPartFiles;
+
+    /**
+     * @param directory   where received files are written
+     * @param replySender sends READY and ACK messages back to the server
+     */
+    public WSFileTransferReceiver(Path directory, Consumer<SBinaryDataWSMessage.Data> replySender) {
+        this.directory = directory;
+        this.replySender = replySender;
+    }
+
+    public synchronized void receive(SBinaryDataWSMessage.Data data) {
+        deleteLeftoverPartFiles();
+        abortTimedOutTransfers();
+
+        SBinaryDataOpCodeType opCode = data.opCode() != null ? data.opCode() : SBinaryDataOpCodeType.INVALID;
+        switch (opCode) {
+            case FILE_TRANSFER_START -> start(data);
+            case FILE_TRANSFER_DATA -> write(data);
+            case FILE_TRANSFER_END -> finish(data);
+            default -> SequoiaMod.warn("Unexpected SBinaryData op code: " + opCode);
+        }
+    }
+
+    private void start(SBinaryDataWSMessage.Data data) {
+        String transferId = data.transferId();
+        if (transferId == null || !TRANSFER_ID_PATTERN.matcher(transferId).matches()) {
+            reject(null, -1, SBinaryDataErrorType.BAD_TRANSFER_ID);
+            return;
+        }
+        if (data.protocolVersion() != PROTOCOL_VERSION || data.metadata() == null) {
+            reject(transferId, -1, SBinaryDataErrorType.BAD_TRANSFER_TYPE);
+            return;
+        }
+        if (data.metadata().length() < 0 || data.metadata().length() > MAX_FILE_LENGTH) {
+            reject(transferId, -1, SBinaryDataErrorType.BAD_LENGTH);
+            return;
+        }
+
+        String fileName = getSafeFileName(data.metadata().filename());
+        if (fileName == null || transfers.containsKey(transferId) || transfers.size() >= MAX_TRANSFERS) {
+            reject(transferId, -1, SBinaryDataErrorType.INVALID);
+            return;
+        }
+
+        try {
+            transfers.put(
+                    transferId,
+                    WSFileTransfer.open(
+                            transferId, directory, fileName, data.metadata().length(), WINDOW_SIZE, data.totalHash()));
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to start file transfer " + transferId, exception);
+            reject(transferId, -1, SBinaryDataErrorType.INVALID);
+            return;
+        }
+
+        SequoiaMod.debug("Started file transfer " + transferId + ": " + data.metadata());
+        reply(transferId, SBinaryDataOpCodeType.FILE_TRANSFER_READY, -1, null);
+    }
+
+    private void write(SBinaryDataWSMessage.Data data) {
+        WSFileTransfer transfer = transfers.get(data.transferId());
+        if (transfer == null) {
+            reject(data.transferId(), data.sequence(), SBinaryDataErrorType.BAD_TRANSFER_ID);
+            return;
+        }
+        if (data.alignment() == null) {
+            acknowledge(transfer, data.sequence(), SBinaryDataErrorType.BAD_OFFSET);
+            return;
+        }
+
+        boolean alreadyReceived = transfer.hasReceived(data.sequence());
+        SBinaryDataErrorType error;
+        try {
+            error = transfer.write(
+                    data.sequence(),
+                    data.alignment().offset(),
+                    data.alignment().length(),
+                    data.payload(),
+                    data.frameHash());
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to write file transfer " + transfer.getTransferId(), exception);
+            abort(transfer, data.sequence(), SBinaryDataErrorType.INVALID);
+            return;
+        }
+
+        if (error != null) {
+            acknowledge(transfer, data.sequence(), error);
+        } else if (alreadyReceived || data.done() || transfer.getUnacknowledgedFrames() >= WINDOW_SIZE / 2) {
+            acknowledge(transfer, data.sequence(), null);
+        }
+    }
+
+    private void finish(SBinaryDataWSMessage.Data data) {
+        WSFileTransfer transfer = transfers.get(data.transferId());
+        if (transfer == null) {
+            reject(data.transferId(), data.sequence(), SBinaryDataErrorType.BAD_TRANSFER_ID);
+            return;
+        }
+
+        SBinaryDataErrorType error;
+        try {
+            error = transfer.finish(data.totalHash());
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to finish file transfer " + transfer.getTransferId(), exception);
+            error = SBinaryDataErrorType.INVALID;
+        }
+
+        if (error != null) {
+            abort(transfer, data.sequence(), error);
+            return;
+        }
+
+        transfers.remove(transfer.getTransferId());
+        SequoiaMod.info("Received file " + transfer.getTargetPath());
+        acknowledge(transfer, data.sequence(), null);
+    }
+
+    private void acknowledge(WSFileTransfer transfer, int sequence, SBinaryDataErrorType error) {
+        transfer.acknowledge();
+        reply(
+                transfer.getTransferId(),
+                SBinaryDataOpCodeType.FILE_TRANSFER_ACK,
+                transfer.getReceivedSequence(),
+                error != null ? createError(sequence, error) : null);
+    }
+
+    /**
+     * Rejects a message that does not belong to a transfer in progress.
+     */
+    private void reject(String transferId, int sequence, SBinaryDataErrorType error) {
+        reply(transferId, SBinaryDataOpCodeType.FILE_TRANSFER_ACK, -1, createError(sequence, error));
+    }
+
+    private void abort(WSFileTransfer transfer, int sequence, SBinaryDataErrorType error) {
+        transfers.remove(transfer.getTransferId());
+        close(transfer);
+        acknowledge(transfer, sequence, error);
+    }
+
+    private void abortTimedOutTransfers() {
+        long now = System.currentTimeMillis();
+        Iterator<WSFileTransfer> iterator = transfers.values().iterator();
+        while (iterator.hasNext()) {
+            WSFileTransfer transfer = iterator.next();
+            if (now - transfer.getLastFrameAt() > TRANSFER_TIMEOUT.toMillis()) {
+                iterator.remove();
+                close(transfer);
+                SequoiaMod.warn("File transfer " + transfer.getTransferId() + " timed out");
+            }
+        }
+    }
+
+    /**
+     * Abandons every transfer in progress, deleting their part files, e.g. once the connection is closed. The server
+     * starts transfers over on the next connection, so nothing is sent back.
+     */
+    public synchronized void abortAll() {
+        if (transfers.isEmpty()) {
+            return;
+        }
+
+        SequoiaMod.debug("Aborting " + transfers.size() + " file transfers");
+        transfers.values().forEach(WSFileTransferReceiver::close);
+        transfers.clear();
+    }
+
+    /**
+     * Deletes the part files of transfers a previous session never finished, e.g. because the game was closed.
+     */
+    private void deleteLeftoverPartFiles() {
+        if (deletedLeftoverPartFiles) {
+            return;
+        }
+        deletedLeftoverPartFiles = true;
+
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> partFiles = Files.newDirectoryStream(directory, "*.part")) {
+            for (Path partFile : partFiles) {
+                Files.deleteIfExists(partFile);
+                SequoiaMod.debug("Deleted leftover file transfer part " + partFile);
+            }
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to delete leftover file transfer parts in " + directory, exception);
+        }
+    }
+
+    private static void close(WSFileTransfer transfer) {
+        try {
+            transfer.close();
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to clean up file transfer " + transfer.getTransferId(), exception);
+        }
+    }
+
+    private void reply(
+            String transferId,
+            SBinaryDataOpCodeType opCode,
+            int sequence,
+            SBinaryDataWSMessage.SBinaryDataError error) {
+        replySender.accept(new SBinaryDataWSMessage.Data(
+                transferId,
+                PROTOCOL_VERSION,
+                opCode,
+                null,
+                null,
+                null,
+                sequence,
+                false,
+                WINDOW_SIZE,
+                null,
+                null,
+                null,
+                OffsetDateTime.now(),
+                error != null ? new SBinaryDataWSMessage.SBinaryDataError[] {error} : null));
+    }
+
+    private static SBinaryDataWSMessage.SBinaryDataError createError(int sequence, SBinaryDataErrorType error) {
+        return new SBinaryDataWSMessage.SBinaryDataError(sequence, error.ordinal(), error.name());
+    }
+
+    /**
+     * @return the file name without any directories, or null if there is none, so that a transfer can't be written
+     *     outside of {@link #directory}
+     */
+    private static String getSafeFileName(String fileName) {
+        if (StringUtils.isBlank(fileName)) {
+            return null;
+        }
+
+        try {
+            Path fileNamePath = Path.of(fileName).getFileName();
+            if (fileNamePath == null) {
+                return null;
+            }
+
+            String safeFileName = fileNamePath.toString();
+            return safeFileName.equals("..") || safeFileName.endsWith(".part") ? null : safeFileName;
+        } catch (InvalidPathException exception) {
+            return null;
+        }
+    }
+}
@@ -14,11 +14,13 @@ public enum SBinaryDataOpCodeType {
     FILE_TRANSFER_READY,
     FILE_TRANSFER_ACK;
 
+    private static final SBinaryDataOpCodeType[] VALUES = values();
+
     public static SBinaryDataOpCodeType fromValue(int value) {
-        if (value < 0 || value >= values().length) {
+        if (value < 0 || value >= VALUES.length) {
             return INVALID;
         }
-        return values()[value];
+        return VALUES[value];
     }
 
     public int getValue() {
@@ -42,13 +42,11 @@ public enum WSMessageType {
     D_SERVER_RESTART,
     D_SERVER_MESSAGE;
 
+    private static final WSMessageType[] VALUES = values();
+
     public static WSMessageType fromValue(int value) {
-        for (WSMessageType type : values()) {
-            if (type.getValue() == value) {
-                return type;
-            }
-        }
-        return INVALID;
+        // Values are ordinals, see getValue()
+        return value >= 0 && value < VALUES.length ? VALUES[value] : INVALID;
     }
 
     public int getValue() {
@@ -59,7 +59,8 @@ public class DiscordChatBridgeFeature extends Feature {
             return;
         }
 
-        if (!SequoiaMod.getWebSocketFeature().isAuthenticated()) {
+        // Lines sent while reconnecting are queued, but not before the first connection, e.g. outside of Sequoia
+        if (!SequoiaMod.getWebSocketFeature().hasAuthenticated()) {
             return;
         }
 
@@ -101,7 +102,7 @@ public class DiscordChatBridgeFeature extends Feature {
 
                 GChatMessageWSMessage gChatMessageWSMessage = new GChatMessageWSMessage(new GChatMessageWSMessage.Data(
                         username, nickname, message, TimeUtils.wsTimestamp(), McUtils.playerName()));
-                SequoiaMod.getWebSocketFeature().sendMessage(gChatMessageWSMessage);
+                SequoiaMod.getWebSocketFeature().queueMessage(gChatMessageWSMessage);
             }
         } catch (Exception exception) {
             SequoiaMod.error("Failed to send guild chat message to Discord", exception);
@@ -28,9 +28,10 @@ public class GuildRaidTrackerFeature extends Feature {
             return;
         }
 
-        if (!SequoiaMod.getWebSocketFeature().isAuthenticated()) {
+        // Reports made while reconnecting are queued, but not before the first connection, e.g. outside of Sequoia
+        if (!SequoiaMod.getWebSocketFeature().hasAuthenticated()) {
             SequoiaMod.debug(
-                    "Ignoring Guild Raid completion report as the user is not authenticated with the WebSocket.");
+                    "Ignoring Guild Raid completion report as the user has not authenticated with the WebSocket.");
             return;
         }
 
@@ -45,7 +46,7 @@ public class GuildRaidTrackerFeature extends Feature {
 
         try {
             GuildRaidWSMessage guildRaidWSMessage = new GuildRaidWSMessage(guildRaid);
-            SequoiaMod.getWebSocketFeature().sendMessage(guildRaidWSMessage);
+            SequoiaMod.getWebSocketFeature().queueMessage(guildRaidWSMessage);
         } catch (Exception exception) {
             SequoiaMod.error("Failed to send Guild Raid completion report", exception);
             McUtils.sendMessageToClient(
@@ -0,0 +1,139 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.features.raids;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.components.Services;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
+import dev.lotnest.sequoia.services.wynn.player.PlayerLookupResults;
+import dev.lotnest.sequoia.services.wynn.player.PlayerResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches the players of the current party as soon as they join it, so that their data is already in memory once it
+ * is needed. Prefetched players are refreshed after {@link #REFRESH_AFTER}, and failed lookups are retried after
+ * {@link #RETRY_AFTER}. Players that do not exist are not looked up again until they are refreshed.
+ */
+final class PartyPlayerPrefetcher {
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(10);
+    private static final Duration RETRY_AFTER = Duration.ofMinutes(1);
+
+    private final Set<PlayerField> fields;
+    private final Map<String, Prefetch> prefetchesByUsername = Maps.newConcurrentMap();
+    private volatile List<String> partyMembers = List.of();
+
+    PartyPlayerPrefetcher(Set<PlayerField> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Prefetches the party members that were not prefetched yet, and forgets the ones that left the party.
+     */
+    public void update(Collection<String> partyMembers) {
+        this.partyMembers = List.copyOf(partyMembers);
+
+        Map<String, String> usernamesByKey = Maps.newHashMap();
+        partyMembers.forEach(username -> usernamesByKey.put(username.toLowerCase(Locale.ROOT), username));
+        prefetchesByUsername.keySet().retainAll(usernamesByKey.keySet());
+
+        List<String> usernamesToFetch = Lists.newArrayList();
+        usernamesByKey.forEach((key, username) -> {
+            Prefetch prefetch = prefetchesByUsername.get(key);
+            if (prefetch == null || prefetch.needsRefresh()) {
+                usernamesToFetch.add(username);
+            }
+        });
+        if (usernamesToFetch.isEmpty()) {
+            return;
+        }
+
+        SequoiaMod.debug("Prefetching party members: " + usernamesToFetch);
+        CompletableFuture<PlayerLookupResults> lookup =
+                Services.Player.getPlayers(usernamesToFetch, RequestPriority.BACKGROUND, fields);
+        long startedAt = System.currentTimeMillis();
+        for (String username : usernamesToFetch) {
+            prefetchesByUsername.put(username.toLowerCase(Locale.ROOT), new Prefetch(username, lookup, startedAt));
+        }
+    }
+
+    /**
+     * Gets the given players, serving prefetched ones from memory and fetching the others.
+     *
+     * @return the players that could be fetched, in the given order
+     */
+    public CompletableFuture<Map<String, PlayerResponse>> getPlayers(List<String> usernames) {
+        Map<String, CompletableFuture<PlayerResponse>> lookups = Maps.newLinkedHashMap();
+        Set<String> usernamesToFetch = Sets.newLinkedHashSet();
+        for (String username : usernames) {
+            Prefetch prefetch = prefetchesByUsername.get(username.toLowerCase(Locale.ROOT));
+            if (prefetch != null && !prefetch.hasFailed()) {
+                lookups.put(username, prefetch.getPlayer().exceptionally(throwable -> null));
+            } else {
+                usernamesToFetch.add(username);
+            }
+        }
+
+        CompletableFuture<Map<String, PlayerResponse>> fetchedPlayers = usernamesToFetch.isEmpty()
+                ? CompletableFuture.completedFuture(Map.of())
+                : Services.Player.getPlayers(usernamesToFetch, RequestPriority.BACKGROUND, fields)
+                        .thenApply(PlayerLookupResults::resolved);
+        return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new))
+                .thenCombine(fetchedPlayers, (ignored, fetchedPlayerResponses) -> {
+                    Map<String, PlayerResponse> playerResponses = Maps.newLinkedHashMap();
+                    for (String username : usernames) {
+                        CompletableFuture<PlayerResponse> lookup = lookups.get(username);
+                        PlayerResponse playerResponse =
+                                lookup != null ? lookup.join() : fetchedPlayerResponses.get(username);
+                        if (playerResponse != null) {
+                            playerResponses.put(username, playerResponse);
+                        }
+                    }
+                    return playerResponses;
+                });
+    }
+
+    /**
+     * @return the party members as of the last {@link #update}, or an empty list if not in a party
+     */
+    public List<String> getPartyMembers() {
+        return partyMembers;
+    }
+
+    public void clear() {
+        partyMembers = List.of();
+        prefetchesByUsername.clear();
+    }
+
+    private record Prefetch(String username, CompletableFuture<PlayerLookupResults> lookup, long startedAt) {
+        private CompletableFuture<PlayerResponse> getPlayer() {
+            return lookup.thenApply(results -> results.resolved().get(username));
+        }
+
+        private boolean needsRefresh() {
+            long age = System.currentTimeMillis() - startedAt;
+            return age > REFRESH_AFTER.toMillis() || (hasFailed() && age > RETRY_AFTER.toMillis());
+        }
+
+        /**
+         * @return whether the lookup failed in a way that may succeed if retried, unlike for a player that does not
+         *     exist
+         */
+        private boolean hasFailed() {
+            return lookup.isDone()
+                    && (lookup.isCompletedExceptionally()
+                            || lookup.join().failed().contains(username));
+        }
+    }
+}
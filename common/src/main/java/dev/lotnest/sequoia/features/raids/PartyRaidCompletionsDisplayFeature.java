@@ -4,6 +4,7 @@
  */
 package dev.lotnest.sequoia.features.raids;
 
+import com.google.common.collect.Sets;
 import com.wynntils.core.WynntilsMod;
 import com.wynntils.core.components.Handlers;
 import com.wynntils.core.components.Managers;
@@ -11,6 +12,7 @@ import com.wynntils.core.components.Models;
 import com.wynntils.core.text.StyledText;
 import com.wynntils.handlers.chat.event.ChatMessageReceivedEvent;
 import com.wynntils.handlers.chat.type.MessageType;
+import com.wynntils.mc.event.TickEvent;
 import com.wynntils.mc.event.TitleSetTextEvent;
 import com.wynntils.models.raid.event.RaidEndedEvent;
 import com.wynntils.models.raid.type.RaidKind;
@@ -18,11 +20,14 @@ import com.wynntils.models.raid.type.RaidRoomType;
 import com.wynntils.utils.mc.McUtils;
 import com.wynntils.utils.mc.StyledTextUtils;
 import dev.lotnest.sequoia.SequoiaMod;
-import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.consumers.features.Feature;
 import dev.lotnest.sequoia.core.events.RaidStartedEvent;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
+import dev.lotnest.sequoia.services.wynn.player.PlayerResponse;
+import dev.lotnest.sequoia.utils.wynn.WynnUtils;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.minecraft.network.chat.ClickEvent;
@@ -33,9 +38,14 @@ import org.apache.commons.compress.utils.Lists;
 
 public class PartyRaidCompletionsDisplayFeature extends Feature {
     private static final Pattern PARTY_LIST_ALL = Pattern.compile("§e.*Party members: (.*)");
+    private static final Set<PlayerField> PLAYER_FIELDS =
+            Sets.immutableEnumSet(PlayerField.GLOBAL_DATA, PlayerField.RANKING);
+    private static final int PARTY_CHECK_INTERVAL_TICKS = 20;
 
+    private final PartyPlayerPrefetcher partyPlayerPrefetcher = new PartyPlayerPrefetcher(PLAYER_FIELDS);
     private boolean shownRaidCompletionsForCurrentParty = false;
     private boolean expectingPartyListMessage = false;
+    private int ticksUntilPartyCheck = 0;
 
     public enum PartyRaidCompletionsDisplayType {
         MANUAL,
@@ -43,6 +53,30 @@ public class PartyRaidCompletionsDisplayFeature extends Feature {
         DISABLED
     }
 
+    /**
+     * Prefetches the raid completions of players as they join the party, so they can be shown from memory as soon
+     * as the raid starts.
+     */
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public void onPartyCheck(TickEvent event) {
+        if (SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType()
+                != PartyRaidCompletionsDisplayType.AUTOMATIC) {
+            return;
+        }
+
+        if (--ticksUntilPartyCheck > 0) {
+            return;
+        }
+        ticksUntilPartyCheck = PARTY_CHECK_INTERVAL_TICKS;
+
+        if (!Models.WorldState.onWorld()) {
+            partyPlayerPrefetcher.clear();
+            return;
+        }
+
+        partyPlayerPrefetcher.update(WynnUtils.getPartyMembersFromTabList());
+    }
+
     @SubscribeEvent(priority = EventPriority.HIGHEST, receiveCanceled = true)
     public void onRaidIntro(TitleSetTextEvent event) {
         if (shownRaidCompletionsForCurrentParty) return;
@@ -57,11 +91,27 @@ public class PartyRaidCompletionsDisplayFeature extends Feature {
         });
     }
 
+    /**
+     * Shows the party's raid completions straight from the party members already known from the tab list, falling
+     * back to asking the server with {@code /party list} when none are known.
+     */
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void onRaidStarted(RaidStartedEvent event) {
         SequoiaMod.debug("RaidStartedEvent");
-        expectingPartyListMessage = true;
-        Handlers.Command.queueCommand("party list");
+
+        PartyRaidCompletionsDisplayType displayType =
+                SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType();
+        List<String> partyMembers = displayType == PartyRaidCompletionsDisplayType.AUTOMATIC
+                ? partyPlayerPrefetcher.getPartyMembers()
+                : WynnUtils.getPartyMembersFromTabList();
+        if (partyMembers.isEmpty()) {
+            SequoiaMod.debug("No party members known from the tab list, querying party list");
+            expectingPartyListMessage = true;
+            Handlers.Command.queueCommand("party list");
+            return;
+        }
+
+        displayRaidCompletions(partyMembers);
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -76,16 +126,7 @@ public class PartyRaidCompletionsDisplayFeature extends Feature {
 
         event.setCanceled(true);
         expectingPartyListMessage = false;
-
-        partyMembers.forEach(partyMember -> {
-            switch (SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType()) {
-                case MANUAL -> handleManualDisplay(partyMember);
-                case AUTOMATIC -> handleAutomaticDisplay(partyMember);
-                default -> throw new IllegalStateException("Unexpected value: "
-                        + SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType());
-            }
-        });
-        shownRaidCompletionsForCurrentParty = true;
+        displayRaidCompletions(partyMembers);
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -98,6 +139,16 @@ public class PartyRaidCompletionsDisplayFeature extends Feature {
         shownRaidCompletionsForCurrentParty = false;
     }
 
+    private void displayRaidCompletions(List<String> partyMembers) {
+        switch (SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType()) {
+            case MANUAL -> partyMembers.forEach(this::handleManualDisplay);
+            case AUTOMATIC -> handleAutomaticDisplay(partyMembers);
+            default -> throw new IllegalStateException("Unexpected value: "
+                    + SequoiaMod.CONFIG.raidsFeature.PartyRaidCompletionsDisplayFeature.displayType());
+        }
+        shownRaidCompletionsForCurrentParty = true;
+    }
+
     private void handleManualDisplay(String playerName) {
         McUtils.sendMessageToClient(
                 Component.translatable("sequoia.feature.partyRaidCompletionsDisplayFeature.clickToView")
@@ -105,19 +156,19 @@ public class PartyRaidCompletionsDisplayFeature extends Feature {
                                 new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/seq playerRaids " + playerName))));
     }
 
-    private void handleAutomaticDisplay(String playerName) {
-        Services.Player.getPlayer(playerName).thenAccept(playerResponse -> {
-            if (playerResponse == null) {
-                return;
-            }
+    private void handleAutomaticDisplay(List<String> partyMembers) {
+        partyPlayerPrefetcher
+                .getPlayers(partyMembers)
+                .thenAccept(playerResponses -> playerResponses.values().forEach(this::showRaidCompletions));
+    }
 
-            McUtils.sendMessageToClient(SequoiaMod.prefix(Component.translatable(
-                            "sequoia.command.playerRaids.showingPlayerRaids",
-                            playerResponse.getUsername(),
-                            playerResponse.getGlobalData().getRaids().getTotal())
-                    .append("\n")
-                    .append(playerResponse.getGlobalData().getRaids().toPrettyMessage(playerResponse.getRanking()))));
-        });
+    private void showRaidCompletions(PlayerResponse playerResponse) {
+        McUtils.sendMessageToClient(SequoiaMod.prefix(Component.translatable(
+                        "sequoia.command.playerRaids.showingPlayerRaids",
+                        playerResponse.getUsername(),
+                        playerResponse.getGlobalData().getRaids().getTotal())
+                .append("\n")
+                .append(playerResponse.getGlobalData().getRaids().toPrettyMessage(playerResponse.getRanking()))));
     }
 
     private List<String> tryParsePartyList(StyledText styledText) {
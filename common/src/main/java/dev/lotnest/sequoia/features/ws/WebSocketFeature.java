@@ -4,31 +4,38 @@
  */
 package dev.lotnest.sequoia.features.ws;
 
-import static dev.lotnest.sequoia.core.ws.WSConstants.GSON;
-
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.wynntils.core.components.Managers;
 import com.wynntils.core.components.Models;
+import com.wynntils.mc.event.TickEvent;
 import com.wynntils.models.character.event.CharacterUpdateEvent;
 import com.wynntils.utils.mc.McUtils;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.consumers.features.Feature;
 import dev.lotnest.sequoia.core.http.HttpUtils;
 import dev.lotnest.sequoia.core.upfixers.AccessTokenManagerUpfixer;
-import dev.lotnest.sequoia.core.ws.handler.ws.SBinaryDataWSMessageHandler;
-import dev.lotnest.sequoia.core.ws.handler.ws.SChannelMessageWSMessageHandler;
-import dev.lotnest.sequoia.core.ws.handler.ws.SCommandPipeWSMessageHandler;
-import dev.lotnest.sequoia.core.ws.handler.ws.SMessageWSMessageHandler;
-import dev.lotnest.sequoia.core.ws.handler.ws.SSessionResultWSMessageHandler;
+import dev.lotnest.sequoia.core.ws.WSBinaryFrames;
+import dev.lotnest.sequoia.core.ws.WSConnectionState;
+import dev.lotnest.sequoia.core.ws.WSConnectionStateMachine;
+import dev.lotnest.sequoia.core.ws.WSDeflateDraft;
+import dev.lotnest.sequoia.core.ws.WSInboundQueue;
+import dev.lotnest.sequoia.core.ws.WSMessageEncoder;
+import dev.lotnest.sequoia.core.ws.WSOutbox;
+import dev.lotnest.sequoia.core.ws.WSTrafficCounter;
 import dev.lotnest.sequoia.core.ws.message.WSMessage;
+import dev.lotnest.sequoia.core.ws.message.ws.binary.SBinaryDataWSMessage;
 import dev.lotnest.sequoia.core.ws.message.ws.session.GIdentifyWSMessage;
-import dev.lotnest.sequoia.core.ws.type.WSMessageType;
+import dev.lotnest.sequoia.core.ws.transfer.WSFileTransferReceiver;
 import dev.lotnest.sequoia.managers.AccessTokenManager;
 import dev.lotnest.sequoia.utils.wynn.WynnUtils;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import org.apache.commons.lang3.StringUtils;
@@ -38,11 +45,32 @@ import org.java_websocket.handshake.ServerHandshake;
 public class WebSocketFeature extends Feature {
     private static final String WS_DEV_URL = "ws://localhost:8085/sequoia-tree/ws";
     private static final String WS_PROD_URL = "wss://api.sequoia.ooo/ws";
+    private static final long MILLIS_PER_TICK = 50;
+    private static final String TRANSFERS_FOLDER_NAME = "transfers";
+
+    private final WSInboundQueue inboundQueue = new WSInboundQueue();
+    private final WSOutbox outbox = new WSOutbox();
+    private final WSTrafficCounter trafficCounter = new WSTrafficCounter();
+    private final WSFileTransferReceiver fileTransferReceiver = new WSFileTransferReceiver(
+            Path.of(AccessTokenManager.BASE_FOLDER_PATH, TRANSFERS_FOLDER_NAME),
+            data -> sendMessage(new SBinaryDataWSMessage(data)));
+    /**
+     * Compression carries over from one message to the next, so messages must reach the socket in the order they were
+     * compressed, even when sent from different threads.
+     */
+    private final Object sendLock = new Object();
+
+    private final WSConnectionStateMachine connectionStateMachine = new WSConnectionStateMachine();
+    /**
+     * Bumped whenever a reconnect is scheduled, or made unnecessary, so that only the latest scheduled one runs.
+     */
+    private final AtomicInteger reconnectGeneration = new AtomicInteger();
 
     private WebSocketClient client;
     private boolean isFirstConnection = false;
-    private boolean isAuthenticating = false;
-    private boolean isAuthenticated = false;
+    private volatile boolean isCloseRequested = false;
+    private volatile boolean hasAuthenticated = false;
+    private volatile boolean isBinaryFramesEnabled = false;
 
     public void initClient() {
         if (McUtils.player() == null || StringUtils.isBlank(McUtils.player().getStringUUID())) {
@@ -62,7 +90,9 @@ public class WebSocketFeature extends Feature {
                         "X-UUID",
                         McUtils.player().getStringUUID(),
                         "User-Agent",
-                        HttpUtils.USER_AGENT));
+                        HttpUtils.USER_AGENT,
+                        WSBinaryFrames.HANDSHAKE_HEADER,
+                        String.valueOf(WSBinaryFrames.VERSION)));
     }
 
     private void initClient(URI serverUri, Map<String, String> httpHeaders) {
@@ -70,15 +100,28 @@ public class WebSocketFeature extends Feature {
             return;
         }
 
-        client = new WebSocketClient(serverUri, httpHeaders) {
+        WSDeflateDraft draft =
+                new WSDeflateDraft(SequoiaMod.CONFIG.webSocketFeature.compressionThreshold(), trafficCounter);
+        client = new WebSocketClient(serverUri, draft, httpHeaders) {
             @Override
             public void onOpen(ServerHandshake serverHandshake) {
-                if (!isEnabled()) {
+                if (!isEnabled() || connectionStateMachine.getState() != WSConnectionState.CONNECTING) {
+                    // Disabled, or closed while connecting
+                    isCloseRequested = true;
                     close();
+                    connectionStateMachine.transitionTo(WSConnectionState.DISCONNECTED, "Opened after being closed");
                     return;
                 }
 
-                SequoiaMod.debug("WebSocket connection opened.");
+                isBinaryFramesEnabled = StringUtils.equals(
+                        serverHandshake.getFieldValue(WSBinaryFrames.HANDSHAKE_HEADER),
+                        String.valueOf(WSBinaryFrames.VERSION));
+                boolean isCompressionEnabled = getConnection().getDraft() instanceof WSDeflateDraft connectionDraft
+                        && connectionDraft.isCompressionEnabled();
+                connectionStateMachine.transitionTo(
+                        WSConnectionState.AUTHENTICATING,
+                        "Connection opened, binary frames: " + isBinaryFramesEnabled + ", compression: "
+                                + isCompressionEnabled);
                 authenticate();
             }
 
@@ -89,31 +132,37 @@ public class WebSocketFeature extends Feature {
                     return;
                 }
 
-                try {
-                    WSMessage wsMessage = GSON.fromJson(s, WSMessage.class);
-                    WSMessageType wsMessageType = WSMessageType.fromValue(wsMessage.getType());
-
-                    SequoiaMod.debug("Received WebSocket message: " + wsMessage);
+                SequoiaMod.debug("Received WebSocket message: " + s);
+                inboundQueue.enqueue(s);
+            }
 
-                    switch (wsMessageType) {
-                        case S_CHANNEL_MESSAGE -> new SChannelMessageWSMessageHandler(s).handle();
-                        case S_SESSION_RESULT -> new SSessionResultWSMessageHandler(s).handle();
-                        case S_MESSAGE -> new SMessageWSMessageHandler(s).handle();
-                        case S_COMMAND_PIPE -> new SCommandPipeWSMessageHandler(s).handle();
-                        case S_BINARY_DATA -> new SBinaryDataWSMessageHandler(s).handle();
-                        default -> SequoiaMod.warn("Unhandled WebSocket message type: " + wsMessageType);
-                    }
-                } catch (Exception exception) {
-                    SequoiaMod.error("Failed to parse WebSocket message: " + s, exception);
+            @Override
+            public void onMessage(ByteBuffer bytes) {
+                if (!isEnabled()) {
+                    close();
+                    return;
                 }
+
+                SequoiaMod.debug("Received binary WebSocket message: " + bytes.remaining() + " bytes");
+                inboundQueue.enqueue(bytes);
             }
 
             @Override
             public void onClose(int i, String s, boolean b) {
-                SequoiaMod.debug("WebSocket connection closed. Code: " + i
-                        + (StringUtils.isNotBlank(s) ? ", Reason: " + s : ""));
-                closeIfNeeded();
-                tryReconnect(true);
+                String reason = "Connection closed by " + (b ? "server" : "client") + ", code: " + i
+                        + (StringUtils.isNotBlank(s) ? ", reason: " + s : "");
+                isBinaryFramesEnabled = false;
+                fileTransferReceiver.abortAll();
+                if (isCloseRequested) {
+                    // Already moved to DISCONNECTED by whoever asked for the close
+                    isCloseRequested = false;
+                    SequoiaMod.debug("WebSocket " + reason);
+                    return;
+                }
+
+                if (connectionStateMachine.transitionTo(WSConnectionState.DISCONNECTED, reason)) {
+                    scheduleReconnect(reason);
+                }
             }
 
             @Override
@@ -123,13 +172,8 @@ public class WebSocketFeature extends Feature {
                     return;
                 }
 
+                // Errors that end the connection are followed by onClose, which schedules the reconnect
                 SequoiaMod.error("Error occurred in WebSocket connection", e);
-                setAuthenticating(false);
-                setAuthenticated(false);
-                if (StringUtils.equals(e.getMessage(), "java.net.ConnectException: Connection refused: connect")) {
-                    client.close();
-                    tryReconnect(true);
-                }
             }
         };
     }
@@ -138,9 +182,31 @@ public class WebSocketFeature extends Feature {
         return client;
     }
 
-    public String sendMessage(Object object) {
+    public WSInboundQueue getInboundQueue() {
+        return inboundQueue;
+    }
+
+    public WSTrafficCounter getTrafficCounter() {
+        return trafficCounter;
+    }
+
+    public WSFileTransferReceiver getFileTransferReceiver() {
+        return fileTransferReceiver;
+    }
+
+    public WSConnectionStateMachine getConnectionStateMachine() {
+        return connectionStateMachine;
+    }
+
+    /**
+     * Sends a message right away, as a binary frame if it carries a binary payload and the server supports them.
+     *
+     * @return whether the message was sent
+     * @see WSBinaryFrames
+     */
+    public boolean sendMessage(WSMessage wsMessage) {
         if (!isEnabled()) {
-            return null;
+            return false;
         }
 
         if (client == null) {
@@ -148,38 +214,96 @@ public class WebSocketFeature extends Feature {
         }
 
         if (!client.isOpen()) {
-            return null;
-        }
-
-        if (!isAuthenticating && !isAuthenticated && (Models.WorldState.onWorld() || Models.WorldState.onHousing())) {
-            authenticate();
-            return null;
+            return false;
         }
 
         try {
-            String json = GSON.toJson(object);
-            if (StringUtils.isBlank(json)) {
-                return null;
+            if (isBinaryFramesEnabled && WSBinaryFrames.canEncode(wsMessage)) {
+                ByteBuffer frame = WSBinaryFrames.encode(wsMessage);
+                SequoiaMod.debug("Sending binary WebSocket message: " + frame.remaining() + " bytes");
+                synchronized (sendLock) {
+                    client.send(frame);
+                }
+                return true;
             }
 
-            JsonObject jsonObject = JsonParser.parseString(json).getAsJsonObject();
-            if (jsonObject.has("data")) {
-                JsonElement dataElement = jsonObject.get("data");
-                if (dataElement.isJsonObject()) {
-                    JsonObject data = dataElement.getAsJsonObject();
-                    if (data.has("access_token")) {
-                        data.addProperty("access_token", "REDACTED");
-                    }
-                }
+            String json = WSMessageEncoder.encode(wsMessage);
+            if (SequoiaMod.isVerboseLogging()) {
+                SequoiaMod.debug("Sending WebSocket message: " + redactAccessToken(json));
             }
 
-            SequoiaMod.debug("Sending WebSocket message: " + jsonObject);
-            client.send(json);
-            return json;
+            synchronized (sendLock) {
+                client.send(json);
+            }
+            return true;
         } catch (RuntimeException exception) {
             SequoiaMod.error("Failed to send WebSocket message", exception);
+            return false;
+        }
+    }
+
+    /**
+     * Only used for logging, so that the access token never ends up in the logs. The message itself is sent as is.
+     */
+    private static String redactAccessToken(String json) {
+        JsonObject jsonObject = JsonParser.parseString(json).getAsJsonObject();
+        if (jsonObject.has("data")) {
+            JsonElement dataElement = jsonObject.get("data");
+            if (dataElement.isJsonObject()) {
+                JsonObject data = dataElement.getAsJsonObject();
+                if (data.has("access_token")) {
+                    data.addProperty("access_token", "REDACTED");
+                }
+            }
+        }
+        return jsonObject.toString();
+    }
+
+    /**
+     * Sends a message that must not be lost. The message is queued on disk, and sent right away if authenticated, or
+     * once authenticated otherwise.
+     *
+     * @see WSOutbox
+     */
+    public void queueMessage(WSMessage wsMessage) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        String playerUuid = getPlayerUuid();
+        if (playerUuid == null) {
+            SequoiaMod.warn("Player UUID is not available. Not queueing WebSocket message.");
+            return;
+        }
+
+        outbox.enqueue(wsMessage, playerUuid);
+        if (connectionStateMachine.getState() == WSConnectionState.READY) {
+            outbox.drain(playerUuid, this::sendQueuedMessage);
+        }
+    }
+
+    private boolean sendQueuedMessage(String json) {
+        if (client == null || !client.isOpen() || connectionStateMachine.getState() != WSConnectionState.READY) {
+            return false;
+        }
+
+        try {
+            SequoiaMod.debug("Sending queued WebSocket message: " + json);
+            synchronized (sendLock) {
+                client.send(json);
+            }
+            return true;
+        } catch (RuntimeException exception) {
+            SequoiaMod.error("Failed to send queued WebSocket message", exception);
+            return false;
+        }
+    }
+
+    private static String getPlayerUuid() {
+        if (McUtils.player() == null || StringUtils.isBlank(McUtils.player().getStringUUID())) {
             return null;
         }
+        return McUtils.player().getStringUUID();
     }
 
     public void authenticate() {
@@ -206,13 +330,18 @@ public class WebSocketFeature extends Feature {
                 return;
             }
 
-            if (isAuthenticating()) {
-                SequoiaMod.debug("Already authenticating with WebSocket server.");
+            WSConnectionState state = connectionStateMachine.getState();
+            if (state == WSConnectionState.DISCONNECTED || state == WSConnectionState.CONNECTING) {
+                SequoiaMod.debug("Not connected to WebSocket server, not authenticating.");
                 return;
             }
 
-            setAuthenticating(true);
-            setAuthenticated(false);
+            if (state == WSConnectionState.READY && !receivedInvalidTokenResult) {
+                SequoiaMod.debug("Already authenticated with WebSocket server.");
+                return;
+            }
+
+            setAuthenticating(receivedInvalidTokenResult ? "Received an invalid token result" : "Identifying");
             SequoiaMod.debug("Authenticating with WebSocket server.");
 
             if (receivedInvalidTokenResult) {
@@ -227,32 +356,57 @@ public class WebSocketFeature extends Feature {
         });
     }
 
+    /**
+     * Identifies again after the server dropped the session of a connection that is still open.
+     */
+    public void requireReauthentication() {
+        setAuthenticating("Server requires authentication");
+        authenticate();
+    }
+
     public boolean isAuthenticating() {
         if (!isEnabled()) {
             return false;
         }
-        return isAuthenticating;
+        return connectionStateMachine.getState() == WSConnectionState.AUTHENTICATING;
     }
 
-    public void setAuthenticating(boolean isAuthenticating) {
+    public void setAuthenticating(String reason) {
         if (!isEnabled()) {
             return;
         }
-        this.isAuthenticating = isAuthenticating;
+        connectionStateMachine.transitionTo(WSConnectionState.AUTHENTICATING, reason);
     }
 
     public boolean isAuthenticated() {
         if (!isEnabled()) {
             return false;
         }
-        return isAuthenticated;
+        return connectionStateMachine.getState() == WSConnectionState.READY;
     }
 
-    public void setAuthenticated(boolean isAuthenticated) {
+    public void setAuthenticated() {
         if (!isEnabled()) {
             return;
         }
-        this.isAuthenticated = isAuthenticated;
+
+        if (connectionStateMachine.transitionTo(WSConnectionState.READY, "Authenticated")) {
+            hasAuthenticated = true;
+            String playerUuid = getPlayerUuid();
+            if (playerUuid != null) {
+                outbox.drain(playerUuid, this::sendQueuedMessage);
+            }
+        }
+    }
+
+    /**
+     * @return whether the connection was authenticated at any point this session, even if it is down right now
+     */
+    public boolean hasAuthenticated() {
+        if (!isEnabled()) {
+            return false;
+        }
+        return hasAuthenticated;
     }
 
     public void connectIfNeeded() {
@@ -264,9 +418,14 @@ public class WebSocketFeature extends Feature {
             initClient();
         }
 
-        if (client.isOpen()) {
+        if (client == null || client.isOpen()) {
+            return;
+        }
+
+        if (!connectionStateMachine.transitionTo(WSConnectionState.CONNECTING, "Connecting")) {
             return;
         }
+        reconnectGeneration.incrementAndGet();
 
         if (!isFirstConnection) {
             isFirstConnection = true;
@@ -281,36 +440,50 @@ public class WebSocketFeature extends Feature {
             return;
         }
 
+        reconnectGeneration.incrementAndGet();
         if (client.isOpen()) {
+            isCloseRequested = true;
             client.close();
         }
 
-        setAuthenticating(false);
-        setAuthenticated(false);
+        isBinaryFramesEnabled = false;
+        fileTransferReceiver.abortAll();
+        connectionStateMachine.transitionTo(WSConnectionState.DISCONNECTED, "Closed by client");
     }
 
-    public void tryReconnect(boolean respectAutoReconnectPreference) {
-        if (respectAutoReconnectPreference && isEnabled() && !SequoiaMod.CONFIG.webSocketFeature.autoReconnect()) {
+    /**
+     * Reconnects after a delay picked by {@link WSConnectionStateMachine#nextReconnectDelay()}, unless the connection
+     * is closed or made again in the meantime.
+     */
+    private void scheduleReconnect(String reason) {
+        if (!isEnabled() || !SequoiaMod.CONFIG.webSocketFeature.autoReconnect()) {
             return;
         }
 
-        if (!Models.WorldState.onWorld() || !Models.WorldState.onHousing()) return;
+        Duration delay = connectionStateMachine.nextReconnectDelay();
+        int generation = reconnectGeneration.incrementAndGet();
+        SequoiaMod.debug("Reconnecting to WebSocket server in " + delay.toMillis() + " ms, attempt "
+                + connectionStateMachine.getFailedAttempts() + ": " + reason);
 
         Managers.TickScheduler.scheduleLater(
                 () -> {
-                    if (!isEnabled()) {
+                    if (generation != reconnectGeneration.get() || !isEnabled()) {
                         return;
                     }
 
-                    if (client == null) {
-                        initClient();
+                    if (!Models.WorldState.onWorld() && !Models.WorldState.onHousing()) {
+                        SequoiaMod.debug("Not reconnecting to WebSocket server outside of a world.");
+                        return;
                     }
 
-                    if (!client.isOpen()) {
-                        client.reconnect();
-                    }
+                    connectIfNeeded();
                 },
-                20 * 10);
+                (int) Math.max(1, delay.toMillis() / MILLIS_PER_TICK));
+    }
+
+    @SubscribeEvent
+    public void onTick(TickEvent event) {
+        inboundQueue.runClientTasks();
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -352,7 +525,7 @@ public class WebSocketFeature extends Feature {
 
     @Override
     public void onEnable() {
-        if (!Models.WorldState.onWorld() || !Models.WorldState.onHousing()) return;
+        if (!Models.WorldState.onWorld() && !Models.WorldState.onHousing()) return;
 
         initClient();
         connectIfNeeded();
@@ -361,5 +534,6 @@ public class WebSocketFeature extends Feature {
     @Override
     public void onDisable() {
         closeIfNeeded();
+        inboundQueue.clear();
     }
 }
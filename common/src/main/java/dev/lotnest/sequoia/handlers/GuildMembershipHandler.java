@@ -0,0 +1,55 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.handlers;
+
+import com.wynntils.handlers.chat.event.ChatMessageReceivedEvent;
+import com.wynntils.handlers.chat.type.MessageType;
+import com.wynntils.utils.mc.McUtils;
+import dev.lotnest.sequoia.core.components.Handler;
+import dev.lotnest.sequoia.core.components.Services;
+import dev.lotnest.sequoia.utils.wynn.WynnUtils;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Keeps the local player's stored guild membership up to date from the guild join, leave and kick messages, so
+ * membership checks don't have to wait for the Wynncraft API to catch up.
+ */
+public class GuildMembershipHandler extends Handler {
+    private static final Pattern JOINED_GUILD_PATTERN = Pattern.compile("^You have joined (?<guild>[A-Za-z ]+)!$");
+    private static final Pattern LEFT_GUILD_PATTERN = Pattern.compile("^You have left (?<guild>[A-Za-z ]+)!$");
+    private static final Pattern KICKED_FROM_GUILD_PATTERN =
+            Pattern.compile("^You (?:have been|were) kicked from (?<guild>[A-Za-z ]+?)(?: by .+?)?!?$");
+    private static final Pattern MEMBER_LEFT_GUILD_PATTERN =
+            Pattern.compile("^(?<player>[A-Za-z0-9_]+) has (?:left the guild|been kicked from the guild by .+?)!?$");
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST, receiveCanceled = true)
+    public void onChatMessage(ChatMessageReceivedEvent event) {
+        if (event.getMessageType() != MessageType.FOREGROUND || McUtils.player() == null) {
+            return;
+        }
+
+        String unformattedMessage = WynnUtils.getUnformattedString(
+                event.getStyledText().getComponent().getString());
+
+        Matcher joinedGuildMatcher = JOINED_GUILD_PATTERN.matcher(unformattedMessage);
+        if (joinedGuildMatcher.matches()) {
+            Services.Guild.updateMembership(McUtils.player().getUUID(), joinedGuildMatcher.group("guild"));
+            return;
+        }
+
+        Matcher memberLeftGuildMatcher = MEMBER_LEFT_GUILD_PATTERN.matcher(unformattedMessage);
+        if (LEFT_GUILD_PATTERN.matcher(unformattedMessage).matches()
+                || KICKED_FROM_GUILD_PATTERN.matcher(unformattedMessage).matches()
+                || (memberLeftGuildMatcher.matches()
+                        && StringUtils.equalsIgnoreCase(
+                                memberLeftGuildMatcher.group("player"), McUtils.playerName()))) {
+            Services.Guild.updateMembership(McUtils.player().getUUID(), null);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.mojang;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import dev.lotnest.sequoia.managers.AccessTokenManager;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An on-disk store of UUID to username mappings resolved through Mojang, so that a player is only looked up once per
+ * {@link #PROFILE_TTL}. The store is read from disk on first use, and written back asynchronously a few seconds after
+ * it changes, so bursts of lookups only cause a single write.
+ */
+final class MojangProfileStore {
+    private static final String FILE_NAME = "mojang_profiles.json";
+    private static final Duration PROFILE_TTL = Duration.ofDays(7);
+    private static final long SAVE_DELAY_SECONDS = 5;
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final Path path = Path.of(AccessTokenManager.BASE_FOLDER_PATH, FILE_NAME);
+    private final Map<String, Profile> profilesByUsername = Maps.newHashMap();
+    private final Map<UUID, Profile> profilesByUUID = Maps.newHashMap();
+    private boolean loaded;
+    private boolean saveScheduled;
+
+    public synchronized UUID getUUID(String username) {
+        ensureLoaded();
+        Profile profile = getFreshProfile(profilesByUsername.get(username.toLowerCase(Locale.ROOT)));
+        return profile != null ? profile.uuid() : null;
+    }
+
+    public synchronized String getUsername(UUID uuid) {
+        ensureLoaded();
+        Profile profile = getFreshProfile(profilesByUUID.get(uuid));
+        return profile != null ? profile.name() : null;
+    }
+
+    public synchronized void put(UUID uuid, String username) {
+        ensureLoaded();
+
+        Profile existingProfile = profilesByUUID.get(uuid);
+        if (existingProfile != null
+                && existingProfile.name().equals(username)
+                && !isStale(existingProfile, PROFILE_TTL.dividedBy(2))) {
+            return;
+        }
+
+        putProfile(new Profile(uuid, username, System.currentTimeMillis()));
+        scheduleSave();
+    }
+
+    private static Profile getFreshProfile(Profile profile) {
+        return profile != null && !isStale(profile, PROFILE_TTL) ? profile : null;
+    }
+
+    private static boolean isStale(Profile profile, Duration ttl) {
+        return System.currentTimeMillis() - profile.resolvedAt() > ttl.toMillis();
+    }
+
+    private void putProfile(Profile profile) {
+        // A player that changed their name must no longer be found under the old one
+        Profile previousProfile = profilesByUUID.put(profile.uuid(), profile);
+        if (previousProfile != null) {
+            profilesByUsername.remove(previousProfile.name().toLowerCase(Locale.ROOT), previousProfile);
+        }
+        profilesByUsername.put(profile.name().toLowerCase(Locale.ROOT), profile);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Profile[] profiles = GSON.fromJson(reader, Profile[].class);
+            if (profiles == null) {
+                return;
+            }
+
+            for (Profile profile : profiles) {
+                if (profile.uuid() != null && profile.name() != null && !isStale(profile, PROFILE_TTL)) {
+                    putProfile(profile);
+                }
+            }
+            SequoiaMod.debug("Loaded " + profilesByUUID.size() + " Mojang profiles from " + path);
+        } catch (IOException | JsonParseException exception) {
+            SequoiaMod.error("Failed to load Mojang profiles from " + path, exception);
+        }
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+
+        CompletableFuture.runAsync(this::save, CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void save() {
+        List<Profile> profiles;
+        synchronized (this) {
+            saveScheduled = false;
+            profiles = Lists.newArrayList(profilesByUUID.values());
+        }
+
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporaryPath = path.resolveSibling(FILE_NAME + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                GSON.toJson(profiles, writer);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            SequoiaMod.debug("Saved " + profiles.size() + " Mojang profiles to " + path);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to save Mojang profiles to " + path, exception);
+        }
+    }
+
+    private record Profile(UUID uuid, String name, long resolvedAt) {}
+}
@@ -4,41 +4,254 @@
  */
 package dev.lotnest.sequoia.services.mojang;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Service;
 import dev.lotnest.sequoia.core.http.HttpClients;
+import dev.lotnest.sequoia.core.http.HttpUtils;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 public final class MojangService extends Service {
-    private static final String USERS_PROFILES_MINECRAFT_BASE_URL =
-            "https://api.mojang.com/users/profiles/minecraft/%s";
-    private static final Pattern UNDASHED_UUID_PATTERN = Pattern.compile("(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})");
+    private static final String PROFILES_MINECRAFT_URL = "https://api.mojang.com/profiles/minecraft";
+    private static final String SESSION_PROFILE_BASE_URL =
+            "https://sessionserver.mojang.com/session/minecraft/profile/%s";
+    private static final Pattern USERNAME_PATTERN = Pattern.compile("\\w{1,16}");
+    private static final int MAX_USERNAMES_PER_BULK_REQUEST = 10;
+    private static final long BULK_REQUEST_DELAY_MILLIS = 50;
+    private static final Duration UNKNOWN_USERNAME_TTL = Duration.ofMinutes(10);
+    private static final int MAX_UNKNOWN_USERNAMES = 512;
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final MojangProfileStore profileStore = new MojangProfileStore();
+    private final Cache<String, Boolean> unknownUsernames = CacheBuilder.newBuilder()
+            .expireAfterWrite(UNKNOWN_USERNAME_TTL)
+            .maximumSize(MAX_UNKNOWN_USERNAMES)
+            .build();
+    private final Map<String, PendingLookup> pendingLookups = Maps.newLinkedHashMap();
+    private final Map<String, CompletableFuture<UUID>> activeLookups = Maps.newHashMap();
+    private RequestPriority pendingPriority = RequestPriority.BACKGROUND;
 
     public MojangService() {
         super(List.of());
     }
 
     public CompletableFuture<UUID> getUUID(String username) {
-        String url = String.format(USERS_PROFILES_MINECRAFT_BASE_URL, username);
+        return getUUID(username, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Resolves the UUID of a username. Usernames resolved within the last week are answered from the on-disk profile
+     * store without a request. Others are queued for a short moment and resolved together through Mojang's bulk
+     * endpoint, up to {@value #MAX_USERNAMES_PER_BULK_REQUEST} per request. Usernames Mojang reports as unknown are
+     * remembered for {@link #UNKNOWN_USERNAME_TTL}, during which they resolve to null without a request.
+     *
+     * @return a future completed with the UUID, or null if the username is unknown or the lookup failed
+     * @see #isUnknownUsername(String)
+     */
+    public CompletableFuture<UUID> getUUID(String username, RequestPriority priority) {
+        if (isUnknownUsername(username)) {
+            SequoiaMod.debug("Skipping Mojang lookup for unknown username: " + username);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        UUID uuid = profileStore.getUUID(username);
+        if (uuid != null) {
+            return CompletableFuture.completedFuture(uuid);
+        }
+
+        String key = username.toLowerCase(Locale.ROOT);
+        CompletableFuture<UUID> future;
+        boolean sendNow;
+        synchronized (pendingLookups) {
+            CompletableFuture<UUID> activeLookup = activeLookups.get(key);
+            if (activeLookup != null) {
+                if (pendingLookups.containsKey(key)) {
+                    pendingPriority = higherPriority(pendingPriority, priority);
+                }
+                return activeLookup;
+            }
+
+            future = new CompletableFuture<>();
+            activeLookups.put(key, future);
+            pendingLookups.put(key, new PendingLookup(username, future));
+            pendingPriority = higherPriority(pendingPriority, priority);
+            sendNow = pendingLookups.size() >= MAX_USERNAMES_PER_BULK_REQUEST;
+            if (!sendNow && pendingLookups.size() == 1) {
+                CompletableFuture.delayedExecutor(BULK_REQUEST_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                        .execute(this::sendBulkRequest);
+            }
+        }
+
+        future.whenComplete((resolvedUUID, throwable) -> {
+            synchronized (pendingLookups) {
+                activeLookups.remove(key, future);
+            }
+        });
+
+        if (sendNow) {
+            sendBulkRequest();
+        }
+        return future;
+    }
+
+    /**
+     * Tells a username that does not exist apart from one whose lookup failed, once {@link #getUUID} resolved it to
+     * null.
+     *
+     * @return whether the username is invalid, or Mojang reported it as unknown within the last
+     *     {@link #UNKNOWN_USERNAME_TTL}
+     */
+    public boolean isUnknownUsername(String username) {
+        // Mojang rejects the whole bulk request if a single username is invalid
+        return !USERNAME_PATTERN.matcher(username).matches()
+                || unknownUsernames.getIfPresent(username.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    public CompletableFuture<String> getUsername(UUID uuid) {
+        return getUsername(uuid, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Resolves the current username of a UUID, answering from the on-disk profile store when possible.
+     *
+     * @return a future completed with the username, or null if the UUID is unknown or the lookup failed
+     */
+    public CompletableFuture<String> getUsername(UUID uuid, RequestPriority priority) {
+        String username = profileStore.getUsername(uuid);
+        if (username != null) {
+            return CompletableFuture.completedFuture(username);
+        }
+
+        String url = String.format(SESSION_PROFILE_BASE_URL, toUndashedUUID(uuid));
         return HttpClients.MOJANG_API
-                .getJsonAsync(url, MojangUsersProfilesMinecraftResponse.class)
+                .getJsonAsync(url, MojangUsersProfilesMinecraftResponse.class, priority)
                 .thenApply(response -> {
-                    if (response != null) {
-                        try {
-                            return UUID.fromString(UNDASHED_UUID_PATTERN
-                                    .matcher(response.getId())
-                                    .replaceFirst("$1-$2-$3-$4-$5"));
-                        } catch (Exception exception) {
-                            SequoiaMod.error("Failed to parse UUID from player data", exception);
-                            return null;
-                        }
-                    } else {
-                        SequoiaMod.error("Failed to fetch Mojang player data");
+                    if (response == null || response.getName() == null) {
+                        SequoiaMod.error("Failed to fetch Mojang profile for " + uuid);
                         return null;
                     }
+
+                    profileStore.put(uuid, response.getName());
+                    return response.getName();
+                });
+    }
+
+    /**
+     * Records a UUID to username mapping learned from another API, so that a later lookup needs no request.
+     */
+    public void rememberProfile(UUID uuid, String username) {
+        profileStore.put(uuid, username);
+        unknownUsernames.invalidate(username.toLowerCase(Locale.ROOT));
+    }
+
+    private void sendBulkRequest() {
+        Map<String, PendingLookup> lookups = Maps.newLinkedHashMap();
+        RequestPriority priority;
+        synchronized (pendingLookups) {
+            Iterator<Map.Entry<String, PendingLookup>> iterator =
+                    pendingLookups.entrySet().iterator();
+            while (iterator.hasNext() && lookups.size() < MAX_USERNAMES_PER_BULK_REQUEST) {
+                Map.Entry<String, PendingLookup> entry = iterator.next();
+                lookups.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+
+            priority = pendingPriority;
+            if (pendingLookups.isEmpty()) {
+                pendingPriority = RequestPriority.BACKGROUND;
+            } else {
+                CompletableFuture.runAsync(this::sendBulkRequest);
+            }
+        }
+
+        if (lookups.isEmpty()) {
+            return;
+        }
+
+        List<String> usernames =
+                lookups.values().stream().map(PendingLookup::username).toList();
+        HttpClients.MOJANG_API
+                .postAsync(PROFILES_MINECRAFT_URL, GSON.toJson(usernames), priority)
+                .whenComplete((response, throwable) -> {
+                    try {
+                        handleBulkResponse(response, lookups);
+                    } finally {
+                        lookups.values().forEach(lookup -> lookup.future().complete(null));
+                    }
                 });
     }
+
+    private void handleBulkResponse(HttpResponse<String> response, Map<String, PendingLookup> lookups) {
+        if (response == null || !HttpUtils.isOkStatusCode(response.statusCode())) {
+            SequoiaMod.error("Failed to fetch Mojang player data for " + lookups.size() + " usernames");
+            return;
+        }
+
+        MojangUsersProfilesMinecraftResponse[] profiles;
+        try {
+            profiles = GSON.fromJson(response.body(), MojangUsersProfilesMinecraftResponse[].class);
+        } catch (JsonParseException exception) {
+            SequoiaMod.error("Failed to parse Mojang player data", exception);
+            return;
+        }
+
+        if (profiles != null) {
+            for (MojangUsersProfilesMinecraftResponse profile : profiles) {
+                PendingLookup lookup = profile.getName() != null
+                        ? lookups.remove(profile.getName().toLowerCase(Locale.ROOT))
+                        : null;
+                if (lookup == null) {
+                    continue;
+                }
+
+                try {
+                    UUID uuid = fromUndashedUUID(profile.getId());
+                    profileStore.put(uuid, profile.getName());
+                    lookup.future().complete(uuid);
+                } catch (RuntimeException exception) {
+                    SequoiaMod.error("Failed to parse UUID from player data", exception);
+                    lookup.future().complete(null);
+                }
+            }
+        }
+
+        // Mojang leaves out usernames that do not exist
+        for (Map.Entry<String, PendingLookup> entry : lookups.entrySet()) {
+            SequoiaMod.debug(
+                    "Mojang does not know username: " + entry.getValue().username());
+            unknownUsernames.put(entry.getKey(), Boolean.TRUE);
+        }
+    }
+
+    private static RequestPriority higherPriority(RequestPriority first, RequestPriority second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static UUID fromUndashedUUID(String id) {
+        if (id == null || id.length() != 32) {
+            throw new IllegalArgumentException("Invalid undashed UUID: " + id);
+        }
+        return new UUID(Long.parseUnsignedLong(id.substring(0, 16), 16), Long.parseUnsignedLong(id.substring(16), 16));
+    }
+
+    private static String toUndashedUUID(UUID uuid) {
+        return String.format("%016x%016x", uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    private record PendingLookup(String username, CompletableFuture<UUID> future) {}
 }
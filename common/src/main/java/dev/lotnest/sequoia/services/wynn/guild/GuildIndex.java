@@ -0,0 +1,210 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.guild;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.http.HttpClients;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import dev.lotnest.sequoia.managers.AccessTokenManager;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A local index of every guild name and prefix, built from the guild list endpoint. It lets {@link GuildService}
+ * pick the right endpoint for a query up front, and backs tab completion without any request.
+ * <p>
+ * The index is persisted between sessions, loaded off-thread on first use, and refreshed in the background once it
+ * is older than {@link #REFRESH_INTERVAL}. Until it is loaded, lookups simply find nothing.
+ */
+final class GuildIndex {
+    private static final String GUILD_LIST_URL = "https://api.wynncraft.com/v3/guild/list/guild";
+    private static final String FILE_NAME = "guild_index.json";
+    private static final Duration REFRESH_INTERVAL = Duration.ofHours(6);
+    private static final Duration REFRESH_RETRY_INTERVAL = Duration.ofMinutes(5);
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final Path path = Path.of(AccessTokenManager.BASE_FOLDER_PATH, FILE_NAME);
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean loaded;
+    private volatile long lastRefreshAttemptAt;
+
+    public Guild findByName(String name) {
+        ensureLoaded();
+        return snapshot.guildsByName().get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Finds a guild by its exact prefix, or by a prefix differing only in case if exactly one guild has it. Prefixes
+     * are only unique in their exact case, so e.g. both "ABC" and "Abc" may exist.
+     */
+    public Guild findByPrefix(String prefix) {
+        ensureLoaded();
+        Guild guild = snapshot.guildsByExactPrefix().get(prefix);
+        return guild != null ? guild : snapshot.guildsByPrefix().get(prefix.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return every prefix, and every guild name that can be typed as a single word
+     */
+    public List<String> getSuggestions() {
+        ensureLoaded();
+        return snapshot.suggestions();
+    }
+
+    private void ensureLoaded() {
+        if (loading.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                load();
+                loaded = true;
+                refreshIfStale();
+            });
+        } else if (loaded) {
+            refreshIfStale();
+        }
+    }
+
+    private void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - snapshot.fetchedAt() < REFRESH_INTERVAL.toMillis()
+                || now - lastRefreshAttemptAt < REFRESH_RETRY_INTERVAL.toMillis()
+                || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        lastRefreshAttemptAt = now;
+
+        HttpClients.WYNNCRAFT_API
+                .getJsonAsync(GUILD_LIST_URL, JsonObject.class, RequestPriority.BACKGROUND)
+                .whenComplete((guildList, throwable) -> {
+                    try {
+                        if (guildList == null) {
+                            SequoiaMod.warn("Failed to refresh guild index");
+                            return;
+                        }
+
+                        List<Guild> guilds = Lists.newArrayListWithCapacity(guildList.size());
+                        for (Map.Entry<String, JsonElement> entry : guildList.entrySet()) {
+                            JsonElement prefix = entry.getValue().isJsonObject()
+                                    ? entry.getValue().getAsJsonObject().get("prefix")
+                                    : null;
+                            guilds.add(new Guild(
+                                    entry.getKey(),
+                                    prefix != null && !prefix.isJsonNull() ? prefix.getAsString() : null));
+                        }
+
+                        snapshot = Snapshot.of(System.currentTimeMillis(), guilds);
+                        SequoiaMod.debug("Refreshed guild index with " + guilds.size() + " guilds");
+                        save(new StoredIndex(snapshot.fetchedAt(), guilds));
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+    }
+
+    private void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            StoredIndex storedIndex = GSON.fromJson(reader, StoredIndex.class);
+            if (storedIndex != null && storedIndex.guilds() != null) {
+                snapshot = Snapshot.of(storedIndex.fetchedAt(), storedIndex.guilds());
+                SequoiaMod.debug("Loaded " + storedIndex.guilds().size() + " guilds from " + path);
+            }
+        } catch (IOException | JsonParseException exception) {
+            SequoiaMod.error("Failed to load guild index from " + path, exception);
+        }
+    }
+
+    private void save(StoredIndex storedIndex) {
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporaryPath = path.resolveSibling(FILE_NAME + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                GSON.toJson(storedIndex, writer);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to save guild index to " + path, exception);
+        }
+    }
+
+    record Guild(String name, String prefix) {}
+
+    private record StoredIndex(long fetchedAt, List<Guild> guilds) {}
+
+    private record Snapshot(
+            long fetchedAt,
+            Map<String, Guild> guildsByName,
+            Map<String, Guild> guildsByExactPrefix,
+            Map<String, Guild> guildsByPrefix,
+            List<String> suggestions) {
+        private static final Snapshot EMPTY =
+                new Snapshot(0, ImmutableMap.of(), ImmutableMap.of(), ImmutableMap.of(), ImmutableList.of());
+
+        private static Snapshot of(long fetchedAt, List<Guild> guilds) {
+            Map<String, Guild> guildsByName = Maps.newHashMapWithExpectedSize(guilds.size());
+            Map<String, Guild> guildsByExactPrefix = Maps.newHashMapWithExpectedSize(guilds.size());
+            Map<String, Guild> guildsByPrefix = Maps.newHashMapWithExpectedSize(guilds.size());
+            Set<String> ambiguousPrefixes = Sets.newHashSet();
+            List<String> suggestions = Lists.newArrayListWithCapacity(guilds.size() * 2);
+
+            for (Guild guild : guilds) {
+                if (StringUtils.isBlank(guild.name())) {
+                    continue;
+                }
+
+                guildsByName.put(guild.name().toLowerCase(Locale.ROOT), guild);
+                if (!StringUtils.containsWhitespace(guild.name())) {
+                    suggestions.add(guild.name());
+                }
+                if (StringUtils.isNotBlank(guild.prefix())) {
+                    guildsByExactPrefix.put(guild.prefix(), guild);
+                    Guild sameCaseInsensitivePrefixGuild =
+                            guildsByPrefix.putIfAbsent(guild.prefix().toLowerCase(Locale.ROOT), guild);
+                    if (sameCaseInsensitivePrefixGuild != null && sameCaseInsensitivePrefixGuild != guild) {
+                        ambiguousPrefixes.add(guild.prefix().toLowerCase(Locale.ROOT));
+                    }
+                    suggestions.add(guild.prefix());
+                }
+            }
+            // Which guild a prefix differing only in case means can't be told, so those are only found exactly
+            guildsByPrefix.keySet().removeAll(ambiguousPrefixes);
+
+            suggestions.sort(String.CASE_INSENSITIVE_ORDER);
+            return new Snapshot(
+                    fetchedAt,
+                    ImmutableMap.copyOf(guildsByName),
+                    ImmutableMap.copyOf(guildsByExactPrefix),
+                    ImmutableMap.copyOf(guildsByPrefix),
+                    ImmutableList.copyOf(suggestions));
+        }
+    }
+}
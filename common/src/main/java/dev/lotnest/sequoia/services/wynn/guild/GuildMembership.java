@@ -0,0 +1,24 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.guild;
+
+import java.time.Duration;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The guild a player was in when last checked.
+ *
+ * @param guildName the guild's name, or null if the player was not in a guild
+ * @param checkedAt when the membership was checked, in epoch milliseconds
+ */
+public record GuildMembership(String guildName, long checkedAt) {
+    public boolean isMemberOf(String guildName) {
+        return StringUtils.equals(this.guildName, guildName);
+    }
+
+    public Duration getAge() {
+        return Duration.ofMillis(System.currentTimeMillis() - checkedAt);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.guild;
+
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import dev.lotnest.sequoia.managers.AccessTokenManager;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An on-disk store of the guild each player was last seen in, so that membership checks can be answered without a
+ * request across sessions. Memberships older than {@link #MAX_STALENESS} are dropped, as they are too old to be
+ * served even while they are being revalidated.
+ */
+final class GuildMembershipStore {
+    private static final String FILE_NAME = "guild_memberships.json";
+    private static final Duration MAX_STALENESS = Duration.ofDays(7);
+    private static final long SAVE_DELAY_SECONDS = 5;
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final Path path = Path.of(AccessTokenManager.BASE_FOLDER_PATH, FILE_NAME);
+    private final Map<UUID, GuildMembership> membershipsByUUID = Maps.newHashMap();
+    private boolean loaded;
+    private boolean saveScheduled;
+
+    public synchronized GuildMembership get(UUID uuid) {
+        ensureLoaded();
+        GuildMembership membership = membershipsByUUID.get(uuid);
+        return membership != null && membership.getAge().compareTo(MAX_STALENESS) <= 0 ? membership : null;
+    }
+
+    /**
+     * Stores a membership, unless a more recent one is already stored. This keeps a lookup that was started before a
+     * guild join or leave from overwriting what was learned from the chat message.
+     */
+    public synchronized void put(UUID uuid, GuildMembership membership) {
+        ensureLoaded();
+
+        GuildMembership existingMembership = membershipsByUUID.get(uuid);
+        if (existingMembership != null && existingMembership.checkedAt() > membership.checkedAt()) {
+            return;
+        }
+
+        membershipsByUUID.put(uuid, membership);
+        scheduleSave();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            Entry[] entries = GSON.fromJson(reader, Entry[].class);
+            if (entries == null) {
+                return;
+            }
+
+            for (Entry entry : entries) {
+                GuildMembership membership = new GuildMembership(entry.guildName(), entry.checkedAt());
+                if (entry.uuid() != null && membership.getAge().compareTo(MAX_STALENESS) <= 0) {
+                    membershipsByUUID.put(entry.uuid(), membership);
+                }
+            }
+            SequoiaMod.debug("Loaded " + membershipsByUUID.size() + " guild memberships from " + path);
+        } catch (IOException | JsonParseException exception) {
+            SequoiaMod.error("Failed to load guild memberships from " + path, exception);
+        }
+    }
+
+    private void scheduleSave() {
+        if (saveScheduled) {
+            return;
+        }
+        saveScheduled = true;
+
+        CompletableFuture.runAsync(this::save, CompletableFuture.delayedExecutor(SAVE_DELAY_SECONDS, TimeUnit.SECONDS));
+    }
+
+    private void save() {
+        Entry[] entries;
+        synchronized (this) {
+            saveScheduled = false;
+            entries = membershipsByUUID.entrySet().stream()
+                    .map(entry -> new Entry(
+                            entry.getKey(),
+                            entry.getValue().guildName(),
+                            entry.getValue().checkedAt()))
+                    .toArray(Entry[]::new);
+        }
+
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporaryPath = path.resolveSibling(FILE_NAME + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                GSON.toJson(entries, writer);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            SequoiaMod.debug("Saved " + entries.length + " guild memberships to " + path);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to save guild memberships to " + path, exception);
+        }
+    }
+
+    private record Entry(UUID uuid, String guildName, long checkedAt) {}
+}
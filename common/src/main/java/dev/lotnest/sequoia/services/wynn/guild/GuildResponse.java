@@ -5,6 +5,7 @@
 package dev.lotnest.sequoia.services.wynn.guild;
 
 import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -17,6 +18,7 @@ import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
 import org.apache.commons.lang3.StringUtils;
 
+@GenerateTypeAdapter
 public class GuildResponse {
     private String uuid;
     private String name;
@@ -31,6 +33,7 @@ public class GuildResponse {
     private Banner banner;
     private Map<String, SeasonRank> seasonRanks;
 
+    @GenerateTypeAdapter
     public static class Members {
         private int total;
         private Map<String, MemberDetails> owner;
@@ -40,6 +43,7 @@ public class GuildResponse {
         private Map<String, MemberDetails> recruiter;
         private Map<String, MemberDetails> recruit;
 
+        @GenerateTypeAdapter
         public static class MemberDetails {
             private String uuid;
             private boolean online;
@@ -285,12 +289,14 @@ public class GuildResponse {
         }
     }
 
+    @GenerateTypeAdapter
     public static class Banner {
         private String base;
         private int tier;
         private String structure;
         private List<Layer> layers;
 
+        @GenerateTypeAdapter
         public static class Layer {
             private String colour;
             private String pattern;
@@ -387,6 +393,7 @@ public class GuildResponse {
         }
     }
 
+    @GenerateTypeAdapter
     public static class SeasonRank {
         private int rating;
         private int finalTerritories;
@@ -4,43 +4,139 @@
  */
 package dev.lotnest.sequoia.services.wynn.guild;
 
+import com.google.common.collect.Maps;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Service;
+import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.http.HttpClients;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.services.wynn.player.PlayerField;
+import dev.lotnest.sequoia.services.wynn.player.PlayerResponse;
 import dev.lotnest.sequoia.utils.URLUtils;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public final class GuildService extends Service {
     private static final String BASE_URL = "https://api.wynncraft.com/v3/guild/%s";
+    private static final int MAX_PREFIX_LENGTH = 4;
+    private static final Duration MEMBERSHIP_FRESH_FOR = Duration.ofMinutes(10);
+
+    private final GuildIndex guildIndex = new GuildIndex();
+    private final GuildMembershipStore membershipStore = new GuildMembershipStore();
+    private final Map<MembershipLookup, CompletableFuture<GuildMembership>> pendingMembershipLookups =
+            Maps.newConcurrentMap();
 
     public GuildService() {
         super(List.of());
     }
 
+    /**
+     * Fetches a guild by name or prefix. Queries found in the guild index cost a single request to the endpoint of
+     * the guild's exact name. Other queries (e.g. guilds created since the index was last refreshed) try the prefix
+     * endpoint first if the query is short enough to be a prefix, and the name endpoint first otherwise.
+     */
     public CompletableFuture<GuildResponse> getGuild(String guildName) {
-        String baseUrl = String.format(BASE_URL, URLUtils.sanitize(guildName));
+        GuildIndex.Guild guild = guildIndex.findByName(guildName);
+        if (guild == null) {
+            guild = guildIndex.findByPrefix(guildName);
+        }
+
+        String nameUrl = String.format(BASE_URL, URLUtils.sanitize(guild != null ? guild.name() : guildName));
+        if (guild != null) {
+            return fetchGuild(nameUrl, null);
+        }
+
         String prefixUrl = String.format(BASE_URL, "prefix/" + URLUtils.sanitize(guildName));
+        return guildName.length() <= MAX_PREFIX_LENGTH
+                ? fetchGuild(prefixUrl, nameUrl)
+                : fetchGuild(nameUrl, prefixUrl);
+    }
+
+    /**
+     * @return guild prefixes and single-word guild names for tab completion, without any request
+     */
+    public List<String> getGuildSuggestions() {
+        return guildIndex.getSuggestions();
+    }
+
+    /**
+     * Gets the guild a player is in, serving the stored membership straight away even if it is stale. Memberships
+     * older than {@link #MEMBERSHIP_FRESH_FOR} are revalidated in the background, so only players that were never
+     * looked up (or not for a long time) wait for a request.
+     *
+     * @param priority the priority of the lookup if the membership is not stored; revalidations always run in the
+     *                 background
+     * @return the player's membership, or null if it is not stored and could not be fetched
+     */
+    public CompletableFuture<GuildMembership> getMembership(UUID uuid, String username, RequestPriority priority) {
+        GuildMembership membership = membershipStore.get(uuid);
+        if (membership == null) {
+            return fetchMembership(uuid, username, priority);
+        }
 
-        CompletableFuture<GuildResponse> normalResponse =
-                HttpClients.WYNNCRAFT_API.getJsonAsync(baseUrl, GuildResponse.class);
-        return normalResponse.thenCompose(response -> {
+        if (membership.getAge().compareTo(MEMBERSHIP_FRESH_FOR) > 0) {
+            SequoiaMod.debug("Revalidating stale guild membership of " + username);
+            fetchMembership(uuid, username, RequestPriority.BACKGROUND);
+        }
+        return CompletableFuture.completedFuture(membership);
+    }
+
+    /**
+     * Replaces a player's stored membership with one known from the game, e.g. after they joined or left a guild.
+     *
+     * @param guildName the guild the player is now in, or null if they are in no guild
+     */
+    public void updateMembership(UUID uuid, String guildName) {
+        SequoiaMod.debug("Updating guild membership of " + uuid + " to " + guildName);
+        membershipStore.put(uuid, new GuildMembership(guildName, System.currentTimeMillis()));
+    }
+
+    /**
+     * Shares lookups of the same player made with the same priority, so that a lookup the player waits for never
+     * joins one queued behind the background reserve.
+     */
+    private CompletableFuture<GuildMembership> fetchMembership(UUID uuid, String username, RequestPriority priority) {
+        MembershipLookup key = new MembershipLookup(uuid, priority);
+        CompletableFuture<GuildMembership> lookup =
+                pendingMembershipLookups.computeIfAbsent(key, ignored -> lookUpMembership(uuid, username, priority));
+        lookup.whenComplete((membership, throwable) -> pendingMembershipLookups.remove(key, lookup));
+        return lookup;
+    }
+
+    private CompletableFuture<GuildMembership> lookUpMembership(UUID uuid, String username, RequestPriority priority) {
+        // Stamped with the start of the lookup, so that a membership learned while it is in flight wins
+        long checkedAt = System.currentTimeMillis();
+        return Services.Player.getPlayer(username, priority, Set.of(PlayerField.GUILD))
+                .thenApply(playerResponse -> {
+                    if (playerResponse == null) {
+                        return null;
+                    }
+
+                    PlayerResponse.Guild guild = playerResponse.getGuild();
+                    GuildMembership membership = new GuildMembership(guild != null ? guild.getName() : null, checkedAt);
+                    membershipStore.put(uuid, membership);
+                    return membership;
+                });
+    }
+
+    private CompletableFuture<GuildResponse> fetchGuild(String url, String fallbackUrl) {
+        return HttpClients.WYNNCRAFT_API.getJsonAsync(url, GuildResponse.class).thenCompose(response -> {
             if (response != null) {
                 SequoiaMod.debug("Fetched guild data: " + response);
                 return CompletableFuture.completedFuture(response);
-            } else {
-                return HttpClients.WYNNCRAFT_API
-                        .getJsonAsync(prefixUrl, GuildResponse.class)
-                        .thenApply(prefixResponse -> {
-                            if (prefixResponse != null) {
-                                SequoiaMod.debug("Fetched guild data with prefix: " + prefixResponse);
-                                return prefixResponse;
-                            } else {
-                                SequoiaMod.error("Failed to fetch guild data");
-                                return null;
-                            }
-                        });
             }
+            if (fallbackUrl != null) {
+                return fetchGuild(fallbackUrl, null);
+            }
+
+            SequoiaMod.error("Failed to fetch guild data");
+            return CompletableFuture.completedFuture(null);
         });
     }
+
+    private record MembershipLookup(UUID uuid, RequestPriority priority) {}
 }
@@ -0,0 +1,383 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.item;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact form of an {@link ItemResponse}, so that the whole item database can stay in memory. Enum-like strings
+ * and icons are interned across items, every numeric field lives in one primitive array, booleans are packed into a
+ * single int, and identifications are stored as indices into a dictionary of identification names shared by all
+ * items, with their min and max packed into a single long.
+ * <p>
+ * Stats that few items have come last in the array, which is cut off after the last stat the item has. The internal
+ * name is only kept when it differs from the name the item is listed under. An {@link ItemResponse} is only
+ * materialized when an item is actually shown, through {@link #toItemResponse}.
+ */
+final class CompactItem {
+    private static final int NULL_VALUE = Integer.MIN_VALUE;
+    private static final int STATS_LENGTH = 28;
+    private static final int[] NO_STATS = new int[0];
+    private static final int[] NO_IDENTIFICATION_KEYS = new int[0];
+    private static final int[] NO_IDENTIFICATION_RAWS = new int[0];
+    private static final long[] NO_IDENTIFICATION_RANGES = new long[0];
+
+    private static final int IDENTIFIER_SHIFT = 0;
+    private static final int ALLOW_CRAFTSMAN_SHIFT = 2;
+    private static final int RAID_REWARD_SHIFT = 4;
+    private static final int HAS_CONSUMABLE_ONLY_IDS = 1 << 6;
+    private static final int HAS_INGREDIENT_POSITION_MODIFIERS = 1 << 7;
+    private static final int HAS_ITEM_ONLY_IDS = 1 << 8;
+    private static final int HAS_BASE = 1 << 9;
+    private static final int HAS_BASE_DAMAGE = 1 << 10;
+    private static final int HAS_REQUIREMENTS = 1 << 11;
+    private static final int HAS_LEVEL_RANGE = 1 << 12;
+    private static final int HAS_IDENTIFICATIONS = 1 << 13;
+    private static final int INTERNAL_NAME_IS_NAME = 1 << 14;
+
+    private final String internalName;
+    private final String type;
+    private final String subType;
+    private final ItemResponse.Icon icon;
+    private final String armourMaterial;
+    private final String attackSpeed;
+    private final String tier;
+    private final String rarity;
+    private final Map<String, String> majorIds;
+    private final String[] craftable;
+    private final String lore;
+    private final String dropRestriction;
+    private final String restriction;
+    private final ItemResponse.DropMeta dropMeta;
+    private final String quest;
+    private final String classRequirement;
+    private final String[] skills;
+    private final int flags;
+    private final int[] stats;
+    private final int[] identificationKeys;
+    private final int[] identificationRaws;
+    private final long[] identificationRanges;
+
+    private CompactItem(
+            String name,
+            ItemResponse item,
+            Interner<Object> interner,
+            int flags,
+            int[] stats,
+            int[] identificationKeys,
+            int[] identificationRaws,
+            long[] identificationRanges) {
+        ItemResponse.Requirements requirements = item.requirements();
+        internalName = (flags & INTERNAL_NAME_IS_NAME) != 0 ? null : item.internalName();
+        type = intern(interner, item.type());
+        subType = intern(interner, item.subType());
+        icon = intern(interner, item.icon());
+        armourMaterial = intern(interner, item.armourMaterial());
+        attackSpeed = intern(interner, item.attackSpeed());
+        tier = intern(interner, item.tier());
+        rarity = intern(interner, item.rarity());
+        majorIds = intern(interner, item.majorIds());
+        craftable = internAll(interner, item.craftable());
+        lore = item.lore();
+        dropRestriction = intern(interner, item.dropRestriction());
+        restriction = intern(interner, item.restriction());
+        dropMeta = intern(interner, item.dropMeta());
+        quest = requirements != null ? intern(interner, requirements.quest()) : null;
+        classRequirement = requirements != null ? intern(interner, requirements.classRequirement()) : null;
+        skills = requirements != null ? internAll(interner, requirements.skills()) : null;
+        this.flags = flags;
+        this.stats = stats;
+        this.identificationKeys = identificationKeys;
+        this.identificationRaws = identificationRaws;
+        this.identificationRanges = identificationRanges;
+    }
+
+    /**
+     * @param name                the name the item is listed under
+     * @param identificationNames the dictionary of identification names of the {@link Encoder} that built this item
+     */
+    ItemResponse toItemResponse(String name, String[] identificationNames) {
+        StatsReader reader = new StatsReader(stats);
+        Integer averageDPS = reader.next();
+        Integer gatheringSpeed = reader.next();
+        Integer powderSlots = reader.next();
+        ItemResponse.Base.BaseDamage baseDamage =
+                new ItemResponse.Base.BaseDamage(reader.next(), reader.next(), reader.next());
+        Integer level = reader.next();
+        ItemResponse.Requirements.LevelRange levelRange =
+                new ItemResponse.Requirements.LevelRange(reader.next(), reader.next());
+        ItemResponse.Requirements requirements = new ItemResponse.Requirements(
+                level,
+                hasFlag(HAS_LEVEL_RANGE) ? levelRange : null,
+                reader.next(),
+                reader.next(),
+                reader.next(),
+                reader.next(),
+                reader.next(),
+                quest,
+                classRequirement,
+                skills != null ? Arrays.asList(skills) : null);
+        ItemResponse.ConsumableOnlyIDs consumableOnlyIDs =
+                new ItemResponse.ConsumableOnlyIDs(reader.next(), reader.next());
+        ItemResponse.IngredientPositionModifiers ingredientPositionModifiers =
+                new ItemResponse.IngredientPositionModifiers(
+                        reader.next(), reader.next(), reader.next(), reader.next(), reader.next(), reader.next());
+        ItemResponse.ItemOnlyIDs itemOnlyIDs = new ItemResponse.ItemOnlyIDs(
+                reader.next(), reader.next(), reader.next(), reader.next(), reader.next(), reader.next());
+
+        Map<String, ItemResponse.Identification> identifications = null;
+        if (hasFlag(HAS_IDENTIFICATIONS)) {
+            identifications = Maps.newLinkedHashMapWithExpectedSize(identificationKeys.length);
+            for (int i = 0; i < identificationKeys.length; i++) {
+                long range = identificationRanges[i];
+                identifications.put(
+                        identificationNames[identificationKeys[i]],
+                        new ItemResponse.Identification(
+                                unpack(identificationRaws[i]), unpack((int) (range >> 32)), unpack((int) range)));
+            }
+        }
+
+        return new ItemResponse(
+                hasFlag(INTERNAL_NAME_IS_NAME) ? name : internalName,
+                type,
+                subType,
+                icon,
+                getBoolean(IDENTIFIER_SHIFT),
+                getBoolean(ALLOW_CRAFTSMAN_SHIFT),
+                armourMaterial,
+                attackSpeed,
+                averageDPS,
+                gatheringSpeed,
+                tier,
+                rarity,
+                hasFlag(HAS_CONSUMABLE_ONLY_IDS) ? consumableOnlyIDs : null,
+                hasFlag(HAS_INGREDIENT_POSITION_MODIFIERS) ? ingredientPositionModifiers : null,
+                hasFlag(HAS_ITEM_ONLY_IDS) ? itemOnlyIDs : null,
+                majorIds,
+                craftable != null ? Arrays.asList(craftable) : null,
+                powderSlots,
+                lore,
+                dropRestriction,
+                restriction,
+                getBoolean(RAID_REWARD_SHIFT),
+                dropMeta,
+                hasFlag(HAS_BASE) ? new ItemResponse.Base(hasFlag(HAS_BASE_DAMAGE) ? baseDamage : null) : null,
+                hasFlag(HAS_REQUIREMENTS) ? requirements : null,
+                identifications);
+    }
+
+    private boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    private Boolean getBoolean(int shift) {
+        return switch ((flags >> shift) & 0b11) {
+            case 1 -> Boolean.FALSE;
+            case 2 -> Boolean.TRUE;
+            default -> null;
+        };
+    }
+
+    private static int packBoolean(Boolean value, int shift) {
+        return value == null ? 0 : (value ? 2 : 1) << shift;
+    }
+
+    private static int pack(Integer value) {
+        return value != null ? value : NULL_VALUE;
+    }
+
+    private static Integer unpack(int value) {
+        return value != NULL_VALUE ? value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T intern(Interner<Object> interner, T value) {
+        return value != null ? (T) interner.intern(value) : null;
+    }
+
+    private static String[] internAll(Interner<Object> interner, List<String> values) {
+        return values != null
+                ? values.stream().map(value -> intern(interner, value)).toArray(String[]::new)
+                : null;
+    }
+
+    /**
+     * Turns {@link ItemResponse}s into {@link CompactItem}s, sharing interned values and the identification name
+     * dictionary between every item it encodes.
+     */
+    static final class Encoder {
+        private final Interner<Object> interner = Interners.newStrongInterner();
+        private final Map<String, Integer> identificationIds = Maps.newHashMap();
+        private final List<String> identificationNames = Lists.newArrayList();
+
+        /**
+         * @param name the name the item is listed under
+         */
+        CompactItem encode(String name, ItemResponse item) {
+            int flags = packBoolean(item.identifier(), IDENTIFIER_SHIFT)
+                    | packBoolean(item.allowCraftsman(), ALLOW_CRAFTSMAN_SHIFT)
+                    | packBoolean(item.raidReward(), RAID_REWARD_SHIFT);
+            if (name.equals(item.internalName())) {
+                flags |= INTERNAL_NAME_IS_NAME;
+            }
+
+            StatsWriter writer = new StatsWriter();
+            writer.add(item.averageDPS());
+            writer.add(item.gatheringSpeed());
+            writer.add(item.powderSlots());
+
+            ItemResponse.Base.BaseDamage baseDamage =
+                    item.base() != null ? item.base().baseDamage() : null;
+            if (item.base() != null) {
+                flags |= HAS_BASE;
+            }
+            if (baseDamage != null) {
+                flags |= HAS_BASE_DAMAGE;
+                writer.add(baseDamage.min());
+                writer.add(baseDamage.max());
+                writer.add(baseDamage.raw());
+            } else {
+                writer.skip(3);
+            }
+
+            ItemResponse.Requirements requirements = item.requirements();
+            if (requirements != null) {
+                flags |= HAS_REQUIREMENTS;
+                writer.add(requirements.level());
+                if (requirements.levelRange() != null) {
+                    flags |= HAS_LEVEL_RANGE;
+                    writer.add(requirements.levelRange().min());
+                    writer.add(requirements.levelRange().max());
+                } else {
+                    writer.skip(2);
+                }
+                writer.add(requirements.strength());
+                writer.add(requirements.dexterity());
+                writer.add(requirements.intelligence());
+                writer.add(requirements.defence());
+                writer.add(requirements.agility());
+            } else {
+                writer.skip(8);
+            }
+
+            ItemResponse.ConsumableOnlyIDs consumableOnlyIDs = item.consumableOnlyIDs();
+            if (consumableOnlyIDs != null) {
+                flags |= HAS_CONSUMABLE_ONLY_IDS;
+                writer.add(consumableOnlyIDs.duration());
+                writer.add(consumableOnlyIDs.charges());
+            } else {
+                writer.skip(2);
+            }
+
+            ItemResponse.IngredientPositionModifiers positionModifiers = item.ingredientPositionModifiers();
+            if (positionModifiers != null) {
+                flags |= HAS_INGREDIENT_POSITION_MODIFIERS;
+                writer.add(positionModifiers.left());
+                writer.add(positionModifiers.right());
+                writer.add(positionModifiers.above());
+                writer.add(positionModifiers.under());
+                writer.add(positionModifiers.touching());
+                writer.add(positionModifiers.notTouching());
+            } else {
+                writer.skip(6);
+            }
+
+            ItemResponse.ItemOnlyIDs itemOnlyIDs = item.itemOnlyIDs();
+            if (itemOnlyIDs != null) {
+                flags |= HAS_ITEM_ONLY_IDS;
+                writer.add(itemOnlyIDs.durabilityModifier());
+                writer.add(itemOnlyIDs.strengthRequirement());
+                writer.add(itemOnlyIDs.dexterityRequirement());
+                writer.add(itemOnlyIDs.intelligenceRequirement());
+                writer.add(itemOnlyIDs.defenceRequirement());
+                writer.add(itemOnlyIDs.agilityRequirement());
+            } else {
+                writer.skip(6);
+            }
+
+            int[] keys = NO_IDENTIFICATION_KEYS;
+            int[] raws = NO_IDENTIFICATION_RAWS;
+            long[] ranges = NO_IDENTIFICATION_RANGES;
+            Map<String, ItemResponse.Identification> identifications = item.identifications();
+            if (identifications != null) {
+                flags |= HAS_IDENTIFICATIONS;
+                if (!identifications.isEmpty()) {
+                    keys = new int[identifications.size()];
+                    raws = new int[identifications.size()];
+                    ranges = new long[identifications.size()];
+                }
+
+                int i = 0;
+                for (Map.Entry<String, ItemResponse.Identification> entry : identifications.entrySet()) {
+                    ItemResponse.Identification identification = entry.getValue();
+                    keys[i] = identificationIds.computeIfAbsent(entry.getKey(), key -> {
+                        identificationNames.add(key);
+                        return identificationNames.size() - 1;
+                    });
+                    raws[i] = identification != null ? pack(identification.rawIdentification()) : NULL_VALUE;
+                    int min = identification != null ? pack(identification.min()) : NULL_VALUE;
+                    int max = identification != null ? pack(identification.max()) : NULL_VALUE;
+                    ranges[i] = ((long) min << 32) | (max & 0xFFFFFFFFL);
+                    i++;
+                }
+            }
+
+            return new CompactItem(name, item, interner, flags, writer.toStats(), keys, raws, ranges);
+        }
+
+        /**
+         * @return the dictionary the identifications of every encoded item point into
+         */
+        String[] getIdentificationNames() {
+            return identificationNames.toArray(String[]::new);
+        }
+    }
+
+    private static final class StatsWriter {
+        private final int[] stats = new int[STATS_LENGTH];
+        private int position;
+        private int length;
+
+        private StatsWriter() {
+            Arrays.fill(stats, NULL_VALUE);
+        }
+
+        private void add(Integer value) {
+            if (value != null) {
+                stats[position] = value;
+                length = position + 1;
+            }
+            position++;
+        }
+
+        private void skip(int count) {
+            position += count;
+        }
+
+        private int[] toStats() {
+            return length > 0 ? Arrays.copyOf(stats, length) : NO_STATS;
+        }
+    }
+
+    private static final class StatsReader {
+        private final int[] stats;
+        private int position;
+
+        private StatsReader(int[] stats) {
+            this.stats = stats;
+        }
+
+        private Integer next() {
+            // Everything past the end of the array is a stat the item does not have
+            return position < stats.length ? unpack(stats[position++]) : null;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.item;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import dev.lotnest.sequoia.SequoiaMod;
+import dev.lotnest.sequoia.core.http.HttpClients;
+import dev.lotnest.sequoia.core.http.HttpUtils;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import dev.lotnest.sequoia.managers.AccessTokenManager;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local copy of the whole Wynncraft item database, so that item searches are answered in memory and keep working
+ * while the API is down.
+ * <p>
+ * The database is stored gzip-compressed next to a small metadata file holding its format version and the validators
+ * the API sent with it. It is loaded off-thread on first use, and revalidated in the background once it is older than
+ * {@link #REFRESH_INTERVAL}; the download only happens again if the API reports that the database changed. Until it is
+ * loaded, {@link #getIndex()} returns null.
+ */
+final class ItemDatabase {
+    private static final String DATABASE_URL = "https://api.wynncraft.com/v3/item/database?fullResult";
+    private static final String DATABASE_FILE_NAME = "item_database.json.gz";
+    private static final String METADATA_FILE_NAME = "item_database_meta.json";
+    /**
+     * Bump whenever the way items are stored or parsed changes, so that copies written by older versions are
+     * downloaded again instead of being misread.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofHours(12);
+    private static final Duration REFRESH_RETRY_INTERVAL = Duration.ofMinutes(10);
+    private static final Duration DOWNLOAD_TIMEOUT = Duration.ofMinutes(2);
+    private static final int NOT_MODIFIED_STATUS_CODE = 304;
+    private static final Gson METADATA_GSON = JsonConstants.GSON;
+
+    private final Gson gson;
+    private final Path databasePath = Path.of(AccessTokenManager.BASE_FOLDER_PATH, DATABASE_FILE_NAME);
+    private final Path metadataPath = Path.of(AccessTokenManager.BASE_FOLDER_PATH, METADATA_FILE_NAME);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("sequoia-item-database")
+            .setDaemon(true)
+            .build());
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile ItemSearchIndex index;
+    private volatile Metadata metadata = Metadata.EMPTY;
+    private volatile boolean loaded;
+    private volatile long lastRefreshAttemptAt;
+
+    ItemDatabase(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * @return the search index over the local database, or null if no database has been loaded yet
+     */
+    public ItemSearchIndex getIndex() {
+        ensureLoaded();
+        return index;
+    }
+
+    private void ensureLoaded() {
+        if (loading.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                load();
+                loaded = true;
+                refreshIfStale();
+            });
+        } else if (loaded) {
+            refreshIfStale();
+        }
+    }
+
+    private void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (now - metadata.fetchedAt() < REFRESH_INTERVAL.toMillis()
+                || now - lastRefreshAttemptAt < REFRESH_RETRY_INTERVAL.toMillis()
+                || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        lastRefreshAttemptAt = now;
+
+        HttpRequest.Builder requestBuilder =
+                HttpRequest.newBuilder(HttpUtils.newGetRequest(DATABASE_URL, DOWNLOAD_TIMEOUT), (name, value) -> true);
+        // Only revalidate a database we actually hold, otherwise a 304 would leave us with nothing
+        if (index != null) {
+            if (metadata.eTag() != null) {
+                requestBuilder.header("If-None-Match", metadata.eTag());
+            }
+            if (metadata.lastModified() != null) {
+                requestBuilder.header("If-Modified-Since", metadata.lastModified());
+            }
+        }
+
+        HttpClients.WYNNCRAFT_API
+                .sendAsync(requestBuilder.build(), ItemDatabase::subscribeToDatabase, RequestPriority.BACKGROUND)
+                .thenAcceptAsync(this::handleRefreshResponse, executor)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        SequoiaMod.error("Failed to refresh item database", throwable);
+                    }
+                    refreshing.set(false);
+                });
+    }
+
+    private static HttpResponse.BodySubscriber<InputStream> subscribeToDatabase(
+            HttpResponse.ResponseInfo responseInfo) {
+        return HttpUtils.isOkStatusCode(responseInfo.statusCode())
+                ? HttpResponse.BodySubscribers.ofInputStream()
+                : HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    private void handleRefreshResponse(HttpResponse<InputStream> response) {
+        if (response == null) {
+            SequoiaMod.warn("Failed to refresh item database");
+            return;
+        }
+
+        if (response.statusCode() == NOT_MODIFIED_STATUS_CODE) {
+            SequoiaMod.debug("Item database is up to date");
+            metadata = new Metadata(
+                    FORMAT_VERSION,
+                    System.currentTimeMillis(),
+                    metadata.eTag(),
+                    metadata.lastModified(),
+                    metadata.itemCount());
+            saveMetadata(metadata);
+            return;
+        }
+
+        if (response.body() == null) {
+            SequoiaMod.warn("Failed to refresh item database, status code: " + response.statusCode());
+            return;
+        }
+
+        Path temporaryPath = databasePath.resolveSibling(DATABASE_FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(databasePath.getParent());
+            try (InputStream inputStream = response.body();
+                    OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporaryPath))) {
+                inputStream.transferTo(outputStream);
+            }
+
+            ItemSearchIndex downloadedIndex = parse(temporaryPath);
+            if (downloadedIndex == null) {
+                Files.deleteIfExists(temporaryPath);
+                return;
+            }
+
+            Files.move(
+                    temporaryPath, databasePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index = downloadedIndex;
+            metadata = new Metadata(
+                    FORMAT_VERSION,
+                    System.currentTimeMillis(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null),
+                    downloadedIndex.size());
+            saveMetadata(metadata);
+            SequoiaMod.info("Downloaded item database with " + downloadedIndex.size() + " items");
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to store item database to " + databasePath, exception);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(metadataPath) || !Files.exists(databasePath)) {
+            return;
+        }
+
+        Metadata storedMetadata;
+        try (Reader reader = Files.newBufferedReader(metadataPath, StandardCharsets.UTF_8)) {
+            storedMetadata = METADATA_GSON.fromJson(reader, Metadata.class);
+        } catch (IOException | JsonParseException exception) {
+            SequoiaMod.error("Failed to load item database metadata from " + metadataPath, exception);
+            return;
+        }
+
+        if (storedMetadata == null || storedMetadata.formatVersion() != FORMAT_VERSION) {
+            SequoiaMod.debug("Discarding item database stored in an outdated format");
+            return;
+        }
+
+        ItemSearchIndex storedIndex = parse(databasePath);
+        if (storedIndex != null) {
+            index = storedIndex;
+            metadata = storedMetadata;
+            SequoiaMod.debug("Loaded " + storedIndex.size() + " items from " + databasePath);
+        }
+    }
+
+    /**
+     * Reads a gzip-compressed item database one item at a time, compacting each item as soon as it is parsed, so
+     * neither the raw JSON nor the full set of {@link ItemResponse}s ever has to fit in memory.
+     */
+    private ItemSearchIndex parse(Path path) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path))), StandardCharsets.UTF_8))) {
+            CompactItem.Encoder encoder = new CompactItem.Encoder();
+            Map<String, CompactItem> items = Maps.newHashMap();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                items.put(name, encoder.encode(name, gson.fromJson(reader, ItemResponse.class)));
+            }
+            reader.endObject();
+            return ItemSearchIndex.of(items, encoder.getIdentificationNames());
+        } catch (IOException | RuntimeException exception) {
+            SequoiaMod.error("Failed to parse item database from " + path, exception);
+            return null;
+        }
+    }
+
+    private void saveMetadata(Metadata metadata) {
+        try {
+            Files.createDirectories(metadataPath.getParent());
+            Path temporaryPath = metadataPath.resolveSibling(METADATA_FILE_NAME + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                METADATA_GSON.toJson(metadata, writer);
+            }
+            Files.move(
+                    temporaryPath, metadataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            SequoiaMod.error("Failed to save item database metadata to " + metadataPath, exception);
+        }
+    }
+
+    private record Metadata(int formatVersion, long fetchedAt, String eTag, String lastModified, int itemCount) {
+        private static final Metadata EMPTY = new Metadata(FORMAT_VERSION, 0, null, null, 0);
+    }
+}
@@ -5,12 +5,14 @@
 package dev.lotnest.sequoia.services.wynn.item;
 
 import com.google.gson.annotations.SerializedName;
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import java.util.List;
 import java.util.Map;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 
+@GenerateTypeAdapter
 public record ItemResponse(
         @SerializedName("internalName") String internalName,
         @SerializedName("type") String type,
@@ -40,9 +42,11 @@ public record ItemResponse(
         @SerializedName("identifications") Map<String, Identification> identifications) {
     public record Icon(@SerializedName("value") Object value, @SerializedName("format") String format) {}
 
+    @GenerateTypeAdapter
     public record ConsumableOnlyIDs(
             @SerializedName("duration") Integer duration, @SerializedName("charges") Integer charges) {}
 
+    @GenerateTypeAdapter
     public record IngredientPositionModifiers(
             @SerializedName("left") Integer left,
             @SerializedName("right") Integer right,
@@ -51,6 +55,7 @@ public record ItemResponse(
             @SerializedName("touching") Integer touching,
             @SerializedName("not_touching") Integer notTouching) {}
 
+    @GenerateTypeAdapter
     public record ItemOnlyIDs(
             @SerializedName("durability_modifier") Integer durabilityModifier,
             @SerializedName("strength_requirement") Integer strengthRequirement,
@@ -59,18 +64,22 @@ public record ItemResponse(
             @SerializedName("defence_requirement") Integer defenceRequirement,
             @SerializedName("agility_requirement") Integer agilityRequirement) {}
 
+    @GenerateTypeAdapter
     public record DropMeta(
             @SerializedName("coordinates") List<Integer> coordinates,
             @SerializedName("name") String name,
             @SerializedName("type") String type) {}
 
+    @GenerateTypeAdapter
     public record Base(@SerializedName("baseDamage") BaseDamage baseDamage) {
+        @GenerateTypeAdapter
         public record BaseDamage(
                 @SerializedName("min") Integer min,
                 @SerializedName("max") Integer max,
                 @SerializedName("raw") Integer raw) {}
     }
 
+    @GenerateTypeAdapter
     public record Requirements(
             @SerializedName("level") Integer level,
             @SerializedName("levelRange") LevelRange levelRange,
@@ -82,9 +91,11 @@ public record ItemResponse(
             @SerializedName("quest") String quest,
             @SerializedName("classRequirement") String classRequirement,
             @SerializedName("skills") List<String> skills) {
+        @GenerateTypeAdapter
         public record LevelRange(@SerializedName("min") Integer min, @SerializedName("max") Integer max) {}
     }
 
+    @GenerateTypeAdapter
     public record Identification(
             @SerializedName("raw") Integer rawIdentification,
             @SerializedName("min") Integer min,
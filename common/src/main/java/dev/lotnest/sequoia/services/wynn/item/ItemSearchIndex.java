@@ -0,0 +1,152 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.item;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable in-memory search index over the item database. Item names are split into lowercase tokens, and a query
+ * matches every item that has, for each of its own tokens, a name token starting with it, so {@code "gal bo"} finds
+ * Gale's Bow. An exact name match wins over everything else.
+ * <p>
+ * Items are numbered in name order, so results come out sorted by name without any sorting at query time. They are
+ * held as {@link CompactItem}s, and only the items a search returns are materialized into {@link ItemResponse}s.
+ */
+final class ItemSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final String[] names;
+    private final CompactItem[] items;
+    private final String[] identificationNames;
+    private final Map<String, Integer> idsByName;
+    private final String[] tokens;
+    private final int[][] postings;
+
+    private ItemSearchIndex(
+            String[] names,
+            CompactItem[] items,
+            String[] identificationNames,
+            Map<String, Integer> idsByName,
+            String[] tokens,
+            int[][] postings) {
+        this.names = names;
+        this.items = items;
+        this.identificationNames = identificationNames;
+        this.idsByName = idsByName;
+        this.tokens = tokens;
+        this.postings = postings;
+    }
+
+    /**
+     * @param identificationNames the identification name dictionary of the encoder that built the items
+     */
+    static ItemSearchIndex of(Map<String, CompactItem> itemsByName, String[] identificationNames) {
+        String[] names = itemsByName.keySet().toArray(String[]::new);
+        Arrays.sort(names, String.CASE_INSENSITIVE_ORDER);
+
+        CompactItem[] items = new CompactItem[names.length];
+        Map<String, Integer> idsByName = Maps.newHashMapWithExpectedSize(names.length);
+        TreeMap<String, List<Integer>> idsByToken = new TreeMap<>();
+        for (int id = 0; id < names.length; id++) {
+            items[id] = itemsByName.get(names[id]);
+            String normalizedName = names[id].toLowerCase(Locale.ROOT);
+            idsByName.putIfAbsent(normalizedName, id);
+
+            for (String token : tokenize(normalizedName)) {
+                List<Integer> ids = idsByToken.computeIfAbsent(token, ignored -> Lists.newArrayList());
+                // Names like "Bob's Bob" repeat a token, which must not list the item twice
+                if (ids.isEmpty() || ids.getLast() != id) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        String[] tokens = idsByToken.keySet().toArray(String[]::new);
+        int[][] postings = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            postings[i] = idsByToken.get(tokens[i]).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        return new ItemSearchIndex(names, items, identificationNames, Map.copyOf(idsByName), tokens, postings);
+    }
+
+    /**
+     * @param query      the item name, or the beginnings of the words in it
+     * @param maxResults the maximum number of items to return
+     * @return the matching items in name order, or only the item whose name is exactly the query
+     */
+    ItemsResponse search(String query, int maxResults) {
+        String normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+        Integer exactId = idsByName.get(normalizedQuery);
+        if (exactId != null) {
+            return new ItemsResponse(
+                    Map.of(names[exactId], items[exactId].toItemResponse(names[exactId], identificationNames)));
+        }
+
+        String[] queryTokens = tokenize(normalizedQuery);
+        if (queryTokens.length == 0) {
+            return ItemsResponse.EMPTY;
+        }
+
+        BitSet matches = null;
+        for (String queryToken : queryTokens) {
+            BitSet tokenMatches = new BitSet(names.length);
+            int tokenIndex = lowerBound(queryToken);
+            while (tokenIndex < tokens.length && tokens[tokenIndex].startsWith(queryToken)) {
+                for (int id : postings[tokenIndex]) {
+                    tokenMatches.set(id);
+                }
+                tokenIndex++;
+            }
+
+            if (matches == null) {
+                matches = tokenMatches;
+            } else {
+                matches.and(tokenMatches);
+            }
+            if (matches.isEmpty()) {
+                return ItemsResponse.EMPTY;
+            }
+        }
+
+        Map<String, ItemResponse> results = Maps.newLinkedHashMap();
+        for (int id = matches.nextSetBit(0); id >= 0 && results.size() < maxResults; id = matches.nextSetBit(id + 1)) {
+            results.put(names[id], items[id].toItemResponse(names[id], identificationNames));
+        }
+        return new ItemsResponse(results);
+    }
+
+    /**
+     * @return every item name, in name order
+     */
+    List<String> getNames() {
+        return Arrays.asList(names);
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    private int lowerBound(String token) {
+        int index = Arrays.binarySearch(tokens, token);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static String[] tokenize(String normalizedText) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalizedText))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -5,13 +5,10 @@
 package dev.lotnest.sequoia.services.wynn.item;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Service;
 import dev.lotnest.sequoia.core.http.HttpClients;
-import dev.lotnest.sequoia.core.json.ItemResponseIconAdapter;
-import dev.lotnest.sequoia.core.json.ItemResponseIdentificationAdapter;
-import dev.lotnest.sequoia.core.json.ItemsResponseAdapter;
+import dev.lotnest.sequoia.core.json.JsonConstants;
 import dev.lotnest.sequoia.utils.URLUtils;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -19,17 +16,29 @@ import java.util.concurrent.CompletableFuture;
 public final class ItemService extends Service {
     private static final String BASE_URL = "https://api.wynncraft.com/v3/item";
     private static final String SEARCH_URL = BASE_URL + "/search/%s";
-    private static final Gson GSON = new GsonBuilder()
-            .registerTypeAdapter(ItemsResponse.class, new ItemsResponseAdapter())
-            .registerTypeAdapter(ItemResponse.Icon.class, new ItemResponseIconAdapter())
-            .registerTypeAdapter(ItemResponse.Identification.class, new ItemResponseIdentificationAdapter())
-            .create();
+    private static final int MAX_SEARCH_RESULTS = 25;
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final ItemDatabase itemDatabase = new ItemDatabase(GSON);
 
     public ItemService() {
         super(List.of());
     }
 
+    /**
+     * Searches items by name. Searches are answered from the local item database without any request once it is
+     * loaded, and fall back to the search endpoint until then.
+     *
+     * @return a future completed with the matching items, or only the item whose name is exactly the query
+     */
     public CompletableFuture<ItemsResponse> searchItem(String itemName) {
+        ItemSearchIndex index = itemDatabase.getIndex();
+        if (index != null) {
+            ItemsResponse result = index.search(itemName, MAX_SEARCH_RESULTS);
+            SequoiaMod.debug("Found " + result.items().size() + " items in local item database for: " + itemName);
+            return CompletableFuture.completedFuture(result);
+        }
+
         String url = String.format(SEARCH_URL, URLUtils.sanitize(itemName));
         return HttpClients.WYNNCRAFT_API
                 .getJsonAsync(url, ItemsResponse.class, GSON)
@@ -47,4 +56,12 @@ public final class ItemService extends Service {
                     return ItemsResponse.EMPTY;
                 });
     }
+
+    /**
+     * @return the names of every item in the local item database, or an empty list until it is loaded
+     */
+    public List<String> getItemNames() {
+        ItemSearchIndex index = itemDatabase.getIndex();
+        return index != null ? index.getNames() : List.of();
+    }
 }
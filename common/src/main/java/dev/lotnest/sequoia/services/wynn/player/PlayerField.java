@@ -0,0 +1,45 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.player;
+
+/**
+ * The top-level fields of a {@link PlayerResponse}, for callers that only need some of them.
+ *
+ * @see PlayerService#getPlayer(String, java.util.Set)
+ */
+public enum PlayerField {
+    USERNAME("username"),
+    ONLINE("online"),
+    SERVER("server"),
+    ACTIVE_CHARACTER("activeCharacter"),
+    NICKNAME("nickname"),
+    UUID("uuid"),
+    RANK("rank"),
+    RANK_BADGE("rankBadge"),
+    LEGACY_RANK_COLOUR("legacyRankColour"),
+    SHORTENED_RANK("shortenedRank"),
+    SUPPORT_RANK("supportRank"),
+    VETERAN("veteran"),
+    FIRST_JOIN("firstJoin"),
+    LAST_JOIN("lastJoin"),
+    PLAYTIME("playtime"),
+    GUILD("guild"),
+    GLOBAL_DATA("globalData"),
+    FORUM_LINK("forumLink"),
+    RANKING("ranking"),
+    PREVIOUS_RANKING("previousRanking"),
+    PUBLIC_PROFILE("publicProfile"),
+    CHARACTERS("characters");
+
+    private final String serializedName;
+
+    PlayerField(String serializedName) {
+        this.serializedName = serializedName;
+    }
+
+    public String getSerializedName() {
+        return serializedName;
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.services.wynn.player;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of looking up several players at once, for callers that need to tell a player that does not exist
+ * apart from a lookup that failed. Usernames of players that do not exist are in neither.
+ *
+ * @param resolved the players that were found, keyed by the username they were requested with, in request order
+ * @param failed   the usernames whose lookup failed, e.g. because the request was shed or errored, and which may
+ *                 succeed if retried
+ */
+public record PlayerLookupResults(Map<String, PlayerResponse> resolved, Set<String> failed) {}
@@ -4,12 +4,14 @@
  */
 package dev.lotnest.sequoia.services.wynn.player;
 
+import dev.lotnest.sequoia.core.json.GenerateTypeAdapter;
 import java.util.List;
 import java.util.Map;
 import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
 
+@GenerateTypeAdapter
 public class PlayerResponse {
     private String username;
     private boolean online;
@@ -34,6 +36,7 @@ public class PlayerResponse {
     private boolean publicProfile;
     private Map<String, Character> characters;
 
+    @GenerateTypeAdapter
     public static class LegacyRankColour {
         private String main;
         private String sub;
@@ -55,6 +58,7 @@ public class PlayerResponse {
         }
     }
 
+    @GenerateTypeAdapter
     public static class Guild {
         private String uuid;
         private String name;
@@ -103,6 +107,7 @@ public class PlayerResponse {
         }
     }
 
+    @GenerateTypeAdapter
     public static class GlobalData {
         private int wars;
         private int totalLevels;
@@ -177,6 +182,7 @@ public class PlayerResponse {
             this.pvp = pvp;
         }
 
+        @GenerateTypeAdapter
         public static class Dungeons {
             private int total;
             private Map<String, Integer> list;
@@ -219,6 +225,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class Raids {
             private static final Map<String, String> RAID_NAME_TO_RAID_LEADERBOARD_MAP = Map.of(
                     "The Canyon Colossus", "colossusCompletion",
@@ -277,6 +284,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class PvP {
             private int kills;
             private int deaths;
@@ -299,6 +307,7 @@ public class PlayerResponse {
         }
     }
 
+    @GenerateTypeAdapter
     public static class Character {
         private String nickname;
         private int level;
@@ -322,6 +331,7 @@ public class PlayerResponse {
         private Raids raids;
         private List<String> quests;
 
+        @GenerateTypeAdapter
         public static class PvP {
             private int kills;
             private int deaths;
@@ -343,6 +353,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class SkillPoints {
             private int strength;
             private int dexterity;
@@ -391,6 +402,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class Profession {
             private int level;
             private int xpPercent;
@@ -412,6 +424,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class Dungeons {
             private int total;
             private Map<String, Integer> list;
@@ -433,6 +446,7 @@ public class PlayerResponse {
             }
         }
 
+        @GenerateTypeAdapter
         public static class Raids {
             private int total;
             private Map<String, Integer> list;
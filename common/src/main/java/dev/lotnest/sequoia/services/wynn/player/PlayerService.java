@@ -4,43 +4,277 @@
  */
 package dev.lotnest.sequoia.services.wynn.player;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.Gson;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Service;
 import dev.lotnest.sequoia.core.components.Services;
 import dev.lotnest.sequoia.core.http.HttpClients;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
+import dev.lotnest.sequoia.core.json.JsonConstants;
+import dev.lotnest.sequoia.core.json.ProjectingTypeAdapterFactory;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public final class PlayerService extends Service {
     private static final String BASE_URL = "https://api.wynncraft.com/v3/player/%s";
     private static final String FULL_RESULT_URL = BASE_URL + "?fullResult";
+    private static final int MAX_CONCURRENT_LOOKUPS = 4;
+    private static final int MULTIPLE_CHOICES_STATUS_CODE = 300;
+    private static final Pattern UUID_PATTERN =
+            Pattern.compile("[0-9a-fA-F]{8}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{4}-?[0-9a-fA-F]{12}");
+    private static final Duration UNKNOWN_PLAYER_TTL = Duration.ofMinutes(10);
+    private static final int MAX_UNKNOWN_PLAYERS = 512;
+    /**
+     * Needed by every lookup to remember the player's profile, so they are part of every projection.
+     */
+    private static final Set<PlayerField> ALWAYS_PROJECTED_FIELDS =
+            Sets.immutableEnumSet(PlayerField.USERNAME, PlayerField.UUID);
+
+    private static final Gson GSON = JsonConstants.GSON;
+
+    private final Cache<String, Boolean> unknownPlayers = CacheBuilder.newBuilder()
+            .expireAfterWrite(UNKNOWN_PLAYER_TTL)
+            .maximumSize(MAX_UNKNOWN_PLAYERS)
+            .build();
+    private final Map<Set<PlayerField>, Gson> projectionGsons = Maps.newConcurrentMap();
 
     public PlayerService() {
         super(List.of());
     }
 
     public CompletableFuture<PlayerResponse> getPlayer(String username) {
-        String url = String.format(BASE_URL, username);
-        return HttpClients.WYNNCRAFT_API.getJsonAsync(url, PlayerResponse.class).thenCompose(playerResponse -> {
-            if (playerResponse == null) {
-                UUID uuid = Services.Mojang.getUUID(username).join();
-                return getPlayer(uuid.toString());
+        return getPlayer(username, RequestPriority.INTERACTIVE);
+    }
+
+    public CompletableFuture<PlayerResponse> getPlayer(String username, RequestPriority priority) {
+        return getPlayer(username, priority, GSON);
+    }
+
+    public CompletableFuture<PlayerResponse> getPlayer(String username, Set<PlayerField> fields) {
+        return getPlayer(username, RequestPriority.INTERACTIVE, fields);
+    }
+
+    /**
+     * Fetches a player, deserializing only the given fields of the response. Every other field, such as the
+     * characters with all their quests and professions, is skipped without being parsed and left at its default.
+     * The username and UUID are always deserialized.
+     *
+     * @param username the username (or UUID) of the player
+     * @param priority the priority of the lookup
+     * @param fields   the fields the caller reads
+     * @return a future completed with the player, or null if the player could not be found
+     */
+    public CompletableFuture<PlayerResponse> getPlayer(
+            String username, RequestPriority priority, Set<PlayerField> fields) {
+        return getPlayer(username, priority, getProjectionGson(fields));
+    }
+
+    private CompletableFuture<PlayerResponse> getPlayer(String username, RequestPriority priority, Gson gson) {
+        return fetchPlayer(username, BASE_URL, gson, priority).thenApply(playerResponse -> {
+            if (playerResponse != null) {
+                SequoiaMod.debug("Fetched player data for username: " + username);
             }
-            SequoiaMod.debug("Fetched player data for username: " + username);
-            return CompletableFuture.completedFuture(playerResponse);
+            return playerResponse;
         });
     }
 
-    public CompletableFuture<PlayerResponse> getPlayerFullResult(String username) {
-        String url = String.format(FULL_RESULT_URL, username);
-        return HttpClients.WYNNCRAFT_API.getJsonAsync(url, PlayerResponse.class).thenCompose(playerResponse -> {
-            if (playerResponse == null) {
-                UUID uuid = Services.Mojang.getUUID(username).join();
-                return getPlayerFullResult(uuid.toString());
+    public CompletableFuture<PlayerLookupResults> getPlayers(Collection<String> usernames) {
+        return getPlayers(usernames, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Looks up several players at once. Usernames are deduplicated case-insensitively and resolved with at most
+     * {@value #MAX_CONCURRENT_LOOKUPS} lookups in flight, leaving the pacing itself to the rate limiter.
+     * <p>
+     * The resolved players follow the order of the given usernames. A lookup that fails does not fail the others;
+     * the usernames whose lookup failed are returned separately from players that do not exist, so that callers can
+     * retry them, and are logged as a warning.
+     *
+     * @param usernames the usernames (or UUIDs) of the players to look up
+     * @param priority  the priority of the lookups
+     * @return a future completed with the resolved players and the failed lookups
+     */
+    public CompletableFuture<PlayerLookupResults> getPlayers(Collection<String> usernames, RequestPriority priority) {
+        return getPlayers(usernames, priority, GSON);
+    }
+
+    /**
+     * Looks up several players at once, deserializing only the given fields of each response.
+     *
+     * @see #getPlayers(Collection, RequestPriority)
+     * @see #getPlayer(String, RequestPriority, Set)
+     */
+    public CompletableFuture<PlayerLookupResults> getPlayers(
+            Collection<String> usernames, RequestPriority priority, Set<PlayerField> fields) {
+        return getPlayers(usernames, priority, getProjectionGson(fields));
+    }
+
+    private CompletableFuture<PlayerLookupResults> getPlayers(
+            Collection<String> usernames, RequestPriority priority, Gson gson) {
+        Map<String, String> uniqueUsernames = Maps.newLinkedHashMap();
+        usernames.forEach(username -> uniqueUsernames.putIfAbsent(username.toLowerCase(Locale.ROOT), username));
+
+        Queue<String> pendingUsernames = new ConcurrentLinkedQueue<>(uniqueUsernames.values());
+        Map<String, PlayerResponse> playerResponses = Maps.newConcurrentMap();
+        Set<String> failedUsernames = ConcurrentHashMap.newKeySet();
+
+        CompletableFuture<?>[] workers =
+                new CompletableFuture<?>[Math.min(MAX_CONCURRENT_LOOKUPS, uniqueUsernames.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = lookupNextPlayer(pendingUsernames, priority, gson, playerResponses, failedUsernames);
+        }
+
+        return CompletableFuture.allOf(workers).thenApply(ignored -> {
+            if (!failedUsernames.isEmpty()) {
+                SequoiaMod.warn("Failed to fetch player data for " + failedUsernames.size() + " of "
+                        + uniqueUsernames.size() + " players: " + String.join(", ", failedUsernames));
             }
-            SequoiaMod.debug("Fetched full player data for username: " + username);
-            return CompletableFuture.completedFuture(playerResponse);
+
+            Map<String, PlayerResponse> orderedPlayerResponses = Maps.newLinkedHashMap();
+            uniqueUsernames.values().forEach(username -> {
+                PlayerResponse playerResponse = playerResponses.get(username);
+                if (playerResponse != null) {
+                    orderedPlayerResponses.put(username, playerResponse);
+                }
+            });
+            return new PlayerLookupResults(orderedPlayerResponses, Set.copyOf(failedUsernames));
         });
     }
+
+    private CompletableFuture<Void> lookupNextPlayer(
+            Queue<String> pendingUsernames,
+            RequestPriority priority,
+            Gson gson,
+            Map<String, PlayerResponse> playerResponses,
+            Set<String> failedUsernames) {
+        String username = pendingUsernames.poll();
+        if (username == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return getPlayer(username, priority, gson)
+                .handle((playerResponse, throwable) -> {
+                    if (playerResponse != null) {
+                        playerResponses.put(username, playerResponse);
+                    } else if (throwable != null || !isUnknownPlayer(username)) {
+                        failedUsernames.add(username);
+                    }
+                    return null;
+                })
+                .thenCompose(ignored ->
+                        lookupNextPlayer(pendingUsernames, priority, gson, playerResponses, failedUsernames));
+    }
+
+    public CompletableFuture<PlayerResponse> getPlayerFullResult(String username) {
+        return fetchPlayer(username, FULL_RESULT_URL, GSON, RequestPriority.INTERACTIVE)
+                .thenApply(playerResponse -> {
+                    if (playerResponse != null) {
+                        SequoiaMod.debug("Fetched full player data for username: " + username);
+                    }
+                    return playerResponse;
+                });
+    }
+
+    /**
+     * Fetches a player by username or UUID. If Wynncraft does not know the username, or it is ambiguous, the
+     * player is looked up again by the UUID Mojang resolves it to. Every step is composed without blocking, and
+     * players that neither Wynncraft nor Mojang know are remembered for {@link #UNKNOWN_PLAYER_TTL}, during which
+     * they resolve to null without a request. Failed requests are not remembered.
+     */
+    private CompletableFuture<PlayerResponse> fetchPlayer(
+            String username, String urlFormat, Gson gson, RequestPriority priority) {
+        String key = username.toLowerCase(Locale.ROOT);
+        if (isUnknownPlayer(username)) {
+            SequoiaMod.debug("Skipping lookup for unknown player: " + username);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String url = String.format(urlFormat, username);
+        return HttpClients.WYNNCRAFT_API
+                .getJsonResponseAsync(url, PlayerResponse.class, gson, priority)
+                .thenCompose(response -> {
+                    if (response.value() != null) {
+                        rememberProfile(response.value());
+                        return CompletableFuture.completedFuture(response.value());
+                    }
+                    if (!response.isNotFound() && response.statusCode() != MULTIPLE_CHOICES_STATUS_CODE) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (UUID_PATTERN.matcher(username).matches()) {
+                        if (response.isNotFound()) {
+                            unknownPlayers.put(key, Boolean.TRUE);
+                        }
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    return Services.Mojang.getUUID(username, priority).thenCompose(uuid -> {
+                        if (uuid == null) {
+                            if (Services.Mojang.isUnknownUsername(username)) {
+                                unknownPlayers.put(key, Boolean.TRUE);
+                            }
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        return fetchPlayer(uuid.toString(), urlFormat, gson, priority)
+                                .thenApply(playerResponse -> {
+                                    if (playerResponse == null
+                                            && unknownPlayers.getIfPresent(uuid.toString()) != null) {
+                                        unknownPlayers.put(key, Boolean.TRUE);
+                                    }
+                                    return playerResponse;
+                                });
+                    });
+                });
+    }
+
+    private boolean isUnknownPlayer(String username) {
+        return unknownPlayers.getIfPresent(username.toLowerCase(Locale.ROOT)) != null;
+    }
+
+    /**
+     * Returns the Gson instance deserializing the given fields. Instances are shared per set of fields, so callers
+     * needing the same fields share cached and in-flight responses. Lookups of the same player with different fields
+     * are requested and cached separately.
+     */
+    private Gson getProjectionGson(Set<PlayerField> fields) {
+        Set<PlayerField> projectedFields = Sets.immutableEnumSet(Iterables.concat(fields, ALWAYS_PROJECTED_FIELDS));
+        if (projectedFields.size() == PlayerField.values().length) {
+            return GSON;
+        }
+
+        return projectionGsons.computeIfAbsent(projectedFields, ignored -> GSON.newBuilder()
+                .registerTypeAdapterFactory(new ProjectingTypeAdapterFactory(
+                        PlayerResponse.class,
+                        projectedFields.stream()
+                                .map(PlayerField::getSerializedName)
+                                .collect(Collectors.toSet())))
+                .create());
+    }
+
+    private static void rememberProfile(PlayerResponse playerResponse) {
+        if (playerResponse.getUuid() == null || playerResponse.getUsername() == null) {
+            return;
+        }
+
+        try {
+            Services.Mojang.rememberProfile(UUID.fromString(playerResponse.getUuid()), playerResponse.getUsername());
+        } catch (IllegalArgumentException exception) {
+            SequoiaMod.debug("Invalid UUID in player data: " + playerResponse.getUuid());
+        }
+    }
 }
@@ -21,6 +21,7 @@ import com.wynntils.utils.render.buffered.CustomRenderType;
 import com.wynntils.utils.wynn.InventoryUtils;
 import dev.lotnest.sequoia.SequoiaMod;
 import dev.lotnest.sequoia.core.components.Services;
+import dev.lotnest.sequoia.core.http.ratelimiter.RequestPriority;
 import dev.lotnest.sequoia.mc.MinecraftUtils;
 import java.util.Collections;
 import java.util.Comparator;
@@ -138,27 +139,39 @@ public final class WynnUtils {
         return WORLD_NAME_TABLIST_ENTRY.matcher(input).matches();
     }
 
+    /**
+     * Checks the local player's guild from the stored membership, which is answered without a request unless the
+     * player was never looked up. The Character Info container is only queried when the membership is unknown.
+     */
     public static CompletableFuture<Boolean> isSequoiaGuildMember() {
-        return Services.Player.getPlayer(McUtils.playerName()).thenApplyAsync(playerResponse -> {
-            if (playerResponse == null) {
-                SequoiaMod.debug("playerResponse is null, querying Character Info for guild info");
-
-                QueryBuilder queryBuilder = ScriptedContainerQuery.builder("Character Info Query");
-                queryBuilder.onError(msg -> WynntilsMod.warn("Error querying Character Info: " + msg));
-                queryBuilder.then(QueryStep.useItemInHotbar(InventoryUtils.COMPASS_SLOT_NUM)
-                        .expectContainerTitle(ContainerModel.CHARACTER_INFO_NAME)
-                        .processIncomingContainer(WynnUtils::parseCharacterContainerForGuildInfo));
-
-                Models.Guild.addGuildContainerQuerySteps(queryBuilder);
-
-                queryBuilder.build().executeQuery();
-                return StringUtils.equals(Models.Guild.getGuildName(), "Sequoia");
-            }
+        return isSequoiaGuildMember(RequestPriority.BACKGROUND);
+    }
 
-            SequoiaMod.debug(playerResponse.getUsername() + "'s guild: "
-                    + playerResponse.getGuild().getName());
-            return StringUtils.equals(playerResponse.getGuild().getName(), "Sequoia");
-        });
+    /**
+     * @param priority the priority of the lookup, {@link RequestPriority#INTERACTIVE} when the player waits for it
+     * @see #isSequoiaGuildMember()
+     */
+    public static CompletableFuture<Boolean> isSequoiaGuildMember(RequestPriority priority) {
+        return Services.Guild.getMembership(McUtils.player().getUUID(), McUtils.playerName(), priority)
+                .thenApplyAsync(membership -> {
+                    if (membership == null) {
+                        SequoiaMod.debug("Guild membership is unknown, querying Character Info for guild info");
+
+                        QueryBuilder queryBuilder = ScriptedContainerQuery.builder("Character Info Query");
+                        queryBuilder.onError(msg -> WynntilsMod.warn("Error querying Character Info: " + msg));
+                        queryBuilder.then(QueryStep.useItemInHotbar(InventoryUtils.COMPASS_SLOT_NUM)
+                                .expectContainerTitle(ContainerModel.CHARACTER_INFO_NAME)
+                                .processIncomingContainer(WynnUtils::parseCharacterContainerForGuildInfo));
+
+                        Models.Guild.addGuildContainerQuerySteps(queryBuilder);
+
+                        queryBuilder.build().executeQuery();
+                        return StringUtils.equals(Models.Guild.getGuildName(), "Sequoia");
+                    }
+
+                    SequoiaMod.debug(McUtils.playerName() + "'s guild: " + membership.guildName());
+                    return membership.isMemberOf("Sequoia");
+                });
     }
 
     public static void parseCharacterContainerForGuildInfo(ContainerContent container) {
@@ -0,0 +1,528 @@
+/*
+ * Copyright © sequoia-mod 2025.
+ * This file is released under LGPLv3. See LICENSE for full license details.
+ */
+package dev.lotnest.sequoia.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a streaming {@code TypeAdapter} for every type annotated with {@code GenerateTypeAdapter}, and a
+ * {@code GeneratedTypeAdapterFactory} that hands them out. The generated adapters go through constructors, accessors
+ * and setters, so (de)serializing these types involves no reflection at all.
+ *
+ * <p>Fields are bound the way Gson's reflective adapter binds them: every non-static, non-transient field is a
+ * property, named by its {@code SerializedName} if it has one. Strings, primitives and their boxes are read and written
+ * inline; any other field type is handed to the adapter the {@code Gson} instance provides for it.
+ */
+@SupportedAnnotationTypes(TypeAdapterProcessor.ANNOTATION_NAME)
+public final class TypeAdapterProcessor extends AbstractProcessor {
+    static final String ANNOTATION_NAME = "dev.lotnest.sequoia.core.json.GenerateTypeAdapter";
+
+    private static final String FACTORY_PACKAGE = "dev.lotnest.sequoia.core.json";
+    private static final String FACTORY_NAME = "GeneratedTypeAdapterFactory";
+    private static final String JSON_STREAMS_NAME = "dev.lotnest.sequoia.core.json.JsonStreams";
+    private static final String SERIALIZED_NAME_NAME = "com.google.gson.annotations.SerializedName";
+    private static final String JSON_ADAPTER_NAME = "com.google.gson.annotations.JsonAdapter";
+
+    private final List<Adapter> adapters = new ArrayList<>();
+    private boolean factoryWritten;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (factoryWritten) {
+                    error("@GenerateTypeAdapter types must not be generated by other annotation processors", element);
+                    continue;
+                }
+
+                try {
+                    Adapter adapter = adapter(model(element));
+                    writeAdapter(adapter);
+                    adapters.add(adapter);
+                } catch (ModelException e) {
+                    error(e.getMessage(), e.element);
+                } catch (IOException e) {
+                    error("Failed to write type adapter: " + e.getMessage(), element);
+                }
+            }
+        }
+
+        if (!factoryWritten && !adapters.isEmpty()) {
+            factoryWritten = true;
+            try {
+                writeFactory();
+            } catch (IOException e) {
+                error("Failed to write " + FACTORY_NAME + ": " + e.getMessage(), null);
+            }
+        }
+        return true;
+    }
+
+    private Model model(Element element) throws ModelException {
+        if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+            throw new ModelException("@GenerateTypeAdapter only applies to classes and records", element);
+        }
+
+        TypeElement type = (TypeElement) element;
+        for (Element enclosing = type; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (!enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                throw new ModelException(enclosing.getSimpleName() + " must be public", element);
+            }
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new ModelException("Inner classes are not supported, make the class static", element);
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new ModelException("Abstract classes are not supported", element);
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new ModelException("Generic types are not supported", element);
+        }
+
+        boolean isRecord = type.getKind() == ElementKind.RECORD;
+        TypeMirror superclass = type.getSuperclass();
+        if (!isRecord && !isType(superclass, "java.lang.Object")) {
+            throw new ModelException("Inherited fields are not supported, " + superclass + " is not Object", element);
+        }
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(type.getEnclosedElements());
+        List<Property> properties = new ArrayList<>();
+        Set<String> serializedNames = new HashSet<>();
+        boolean settable = !isRecord;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)
+                    || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                continue;
+            }
+            if (annotation(field, JSON_ADAPTER_NAME) != null) {
+                throw new ModelException("@JsonAdapter is not supported", field);
+            }
+
+            String name = field.getSimpleName().toString();
+            List<String> names = serializedNames(field);
+            for (String serializedName : names) {
+                if (!serializedNames.add(serializedName)) {
+                    throw new ModelException("Duplicate JSON name '" + serializedName + "'", field);
+                }
+            }
+
+            String getter = isRecord ? name + "()" : getter(field, methods);
+            String setter = isRecord ? null : setter(field, methods);
+            settable &= setter != null;
+            properties.add(new Property(
+                    name, names.getFirst(), names.subList(1, names.size()), field.asType(), getter, setter));
+        }
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .filter(constructor -> !constructor.getModifiers().contains(Modifier.PRIVATE))
+                .toList();
+        if (settable
+                && constructors.stream()
+                        .anyMatch(constructor -> constructor.getParameters().isEmpty())) {
+            return new Model(type, properties, false);
+        }
+        if (constructors.stream().anyMatch(constructor -> bindsAll(constructor, properties))) {
+            return new Model(type, properties, true);
+        }
+        throw new ModelException(
+                "Needs a no-arg constructor with a setter per field, or a constructor taking every field in order",
+                element);
+    }
+
+    private Adapter adapter(Model model) {
+        StringBuilder simpleName = new StringBuilder(model.type().getSimpleName());
+        for (Element enclosing = model.type().getEnclosingElement();
+                enclosing instanceof TypeElement;
+                enclosing = enclosing.getEnclosingElement()) {
+            simpleName.insert(0, enclosing.getSimpleName() + "_");
+        }
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(model.type());
+        return new Adapter(
+                model,
+                packageElement.getQualifiedName().toString(),
+                simpleName.append("TypeAdapter").toString());
+    }
+
+    private String getter(VariableElement field, List<ExecutableElement> methods) throws ModelException {
+        String capitalized = capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : methods) {
+            String methodName = method.getSimpleName().toString();
+            boolean named = methodName.equals("get" + capitalized)
+                    || (field.asType().getKind() == TypeKind.BOOLEAN && methodName.equals("is" + capitalized));
+            if (named
+                    && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+                return methodName + "()";
+            }
+        }
+
+        if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+            return field.getSimpleName().toString();
+        }
+        throw new ModelException("Private field needs a getter", field);
+    }
+
+    private String setter(VariableElement field, List<ExecutableElement> methods) {
+        String methodName = "set" + capitalize(field.getSimpleName().toString());
+        for (ExecutableElement method : methods) {
+            if (method.getSimpleName().contentEquals(methodName)
+                    && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv
+                            .getTypeUtils()
+                            .isSameType(method.getParameters().getFirst().asType(), field.asType())) {
+                return methodName + "(%s)";
+            }
+        }
+
+        if (!field.getModifiers().contains(Modifier.PRIVATE)
+                && !field.getModifiers().contains(Modifier.FINAL)) {
+            return field.getSimpleName() + " = %s";
+        }
+        return null;
+    }
+
+    private boolean bindsAll(ExecutableElement constructor, List<Property> properties) {
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        if (parameters.size() != properties.size()) {
+            return false;
+        }
+        for (int i = 0; i < parameters.size(); i++) {
+            if (!processingEnv
+                    .getTypeUtils()
+                    .isSameType(parameters.get(i).asType(), properties.get(i).type())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> serializedNames(VariableElement field) {
+        List<String> names = new ArrayList<>();
+        AnnotationMirror serializedName = annotation(field, SERIALIZED_NAME_NAME);
+        if (serializedName == null) {
+            names.add(field.getSimpleName().toString());
+            return names;
+        }
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                serializedName.getElementValues().entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            if (attribute.equals("value")) {
+                names.addFirst((String) entry.getValue().getValue());
+            } else if (attribute.equals("alternate")) {
+                for (Object alternate : (List<?>) entry.getValue().getValue()) {
+                    names.add((String) ((AnnotationValue) alternate).getValue());
+                }
+            }
+        }
+        return names;
+    }
+
+    private void writeAdapter(Adapter adapter) throws IOException {
+        Model model = adapter.model();
+        String typeName = model.type().getQualifiedName().toString();
+
+        try (PrintWriter out = new PrintWriter(openSource(adapter.qualifiedName(), model.type()))) {
+            out.println("package " + adapter.packageName() + ";");
+            out.println();
+            out.println("import com.google.gson.Gson;");
+            out.println("import com.google.gson.TypeAdapter;");
+            out.println("import com.google.gson.reflect.TypeToken;");
+            out.println("import com.google.gson.stream.JsonReader;");
+            out.println("import com.google.gson.stream.JsonToken;");
+            out.println("import com.google.gson.stream.JsonWriter;");
+            out.println("import " + JSON_STREAMS_NAME + ";");
+            out.println("import java.io.IOException;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("@Generated(\"" + TypeAdapterProcessor.class.getName() + "\")");
+            out.println("public final class " + adapter.simpleName() + " extends TypeAdapter<" + typeName + "> {");
+
+            List<Property> delegated = model.properties().stream()
+                    .filter(property -> !isInline(property.type()))
+                    .toList();
+            for (Property property : delegated) {
+                out.println("    private final TypeAdapter<" + boxedName(property.type()) + "> " + property.name()
+                        + "Adapter;");
+            }
+            if (!delegated.isEmpty()) {
+                out.println();
+            }
+            out.println("    public " + adapter.simpleName() + "(Gson gson) {");
+            for (Property property : delegated) {
+                out.println("        this." + property.name() + "Adapter = gson.getAdapter("
+                        + typeLiteral(property.type()) + ");");
+            }
+            out.println("    }");
+
+            out.println();
+            out.println("    @Override");
+            out.println("    public void write(JsonWriter out, " + typeName + " value) throws IOException {");
+            out.println("        if (value == null) {");
+            out.println("            out.nullValue();");
+            out.println("            return;");
+            out.println("        }");
+            out.println();
+            out.println("        out.beginObject();");
+            for (Property property : model.properties()) {
+                out.println("        out.name(\"" + escape(property.serializedName()) + "\");");
+                String getter = "value." + property.getter();
+                if (isInline(property.type())) {
+                    out.println("        out.value(" + getter + ");");
+                } else {
+                    out.println("        " + property.name() + "Adapter.write(out, " + getter + ");");
+                }
+            }
+            out.println("        out.endObject();");
+            out.println("    }");
+
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + typeName + " read(JsonReader in) throws IOException {");
+            out.println("        if (in.peek() == JsonToken.NULL) {");
+            out.println("            in.nextNull();");
+            out.println("            return null;");
+            out.println("        }");
+            out.println();
+            if (model.constructorBinding()) {
+                for (Property property : model.properties()) {
+                    out.println("        " + property.type() + " " + property.name() + "Value = "
+                            + defaultValue(property.type()) + ";");
+                }
+            } else {
+                out.println("        " + typeName + " value = new " + typeName + "();");
+            }
+            out.println("        in.beginObject();");
+            out.println("        while (in.hasNext()) {");
+            out.println("            switch (in.nextName()) {");
+            for (Property property : model.properties()) {
+                StringJoiner labels = new StringJoiner(", ");
+                labels.add("\"" + escape(property.serializedName()) + "\"");
+                property.alternateNames().forEach(name -> labels.add("\"" + escape(name) + "\""));
+                String assignment =
+                        model.constructorBinding() ? property.name() + "Value = %s" : "value." + property.setter();
+
+                out.print("                case " + labels + " -> ");
+                if (!isInline(property.type())) {
+                    out.println(assignment.formatted(property.name() + "Adapter.read(in)") + ";");
+                } else if (property.type().getKind().isPrimitive()) {
+                    out.println("{");
+                    out.println("                    if (!JsonStreams.nextNull(in)) {");
+                    out.println("                        " + assignment.formatted(readInline(property.type())) + ";");
+                    out.println("                    }");
+                    out.println("                }");
+                } else {
+                    out.println(assignment.formatted("JsonStreams.nextNull(in) ? null : " + readInline(property.type()))
+                            + ";");
+                }
+            }
+            out.println("                default -> in.skipValue();");
+            out.println("            }");
+            out.println("        }");
+            out.println("        in.endObject();");
+            if (model.constructorBinding()) {
+                StringJoiner arguments = new StringJoiner(", ");
+                model.properties().forEach(property -> arguments.add(property.name() + "Value"));
+                out.println("        return new " + typeName + "(" + arguments + ");");
+            } else {
+                out.println("        return value;");
+            }
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private void writeFactory() throws IOException {
+        Element[] originatingElements =
+                adapters.stream().map(adapter -> adapter.model().type()).toArray(Element[]::new);
+
+        try (PrintWriter out = new PrintWriter(openSource(FACTORY_PACKAGE + "." + FACTORY_NAME, originatingElements))) {
+            out.println("package " + FACTORY_PACKAGE + ";");
+            out.println();
+            out.println("import com.google.gson.Gson;");
+            out.println("import com.google.gson.TypeAdapter;");
+            out.println("import com.google.gson.TypeAdapterFactory;");
+            out.println("import com.google.gson.reflect.TypeToken;");
+            out.println("import javax.annotation.processing.Generated;");
+            out.println();
+            out.println("@Generated(\"" + TypeAdapterProcessor.class.getName() + "\")");
+            out.println("public final class " + FACTORY_NAME + " implements TypeAdapterFactory {");
+            out.println("    @Override");
+            out.println("    @SuppressWarnings(\"unchecked\")");
+            out.println("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {");
+            out.println("        Class<? super T> rawType = typeToken.getRawType();");
+            for (Adapter adapter : adapters) {
+                out.println("        if (rawType == " + adapter.model().type().getQualifiedName() + ".class) {");
+                out.println("            return (TypeAdapter<T>) new " + adapter.qualifiedName() + "(gson);");
+                out.println("        }");
+            }
+            out.println("        return null;");
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    private Writer openSource(String qualifiedName, Element... originatingElements) throws IOException {
+        return processingEnv
+                .getFiler()
+                .createSourceFile(qualifiedName, originatingElements)
+                .openWriter();
+    }
+
+    private String typeLiteral(TypeMirror type) {
+        if (hasTypeArguments(type)) {
+            return "new TypeToken<" + type + ">() {}";
+        }
+        return processingEnv.getTypeUtils().erasure(type) + ".class";
+    }
+
+    private boolean hasTypeArguments(TypeMirror type) {
+        if (type instanceof ArrayType arrayType) {
+            return hasTypeArguments(arrayType.getComponentType());
+        }
+        return type instanceof DeclaredType declaredType
+                && (!declaredType.getTypeArguments().isEmpty() || hasTypeArguments(declaredType.getEnclosingType()));
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv
+                    .getTypeUtils()
+                    .boxedClass((PrimitiveType) type)
+                    .getQualifiedName()
+                    .toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * @return whether values of this type are read and written straight through the stream, without an adapter
+     */
+    private boolean isInline(TypeMirror type) {
+        return readInline(type) != null;
+    }
+
+    private String readInline(TypeMirror type) {
+        TypeKind kind = type.getKind();
+        if (kind == TypeKind.DECLARED) {
+            if (isType(type, "java.lang.String")) {
+                return "JsonStreams.nextString(in)";
+            }
+            try {
+                kind = processingEnv.getTypeUtils().unboxedType(type).getKind();
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        return switch (kind) {
+            case BOOLEAN -> "JsonStreams.nextBoolean(in)";
+            case BYTE -> "JsonStreams.nextByte(in)";
+            case SHORT -> "JsonStreams.nextShort(in)";
+            case INT -> "JsonStreams.nextInt(in)";
+            case LONG -> "JsonStreams.nextLong(in)";
+            case FLOAT -> "JsonStreams.nextFloat(in)";
+            case DOUBLE -> "JsonStreams.nextDouble(in)";
+            default -> null;
+        };
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case BYTE, SHORT, INT, LONG, FLOAT, DOUBLE, CHAR -> "0";
+            default -> "null";
+        };
+    }
+
+    private static boolean isType(TypeMirror type, String qualifiedName) {
+        return type instanceof DeclaredType declaredType
+                && ((TypeElement) declaredType.asElement()).getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (isType(annotation.getAnnotationType(), qualifiedName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(String message, Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private record Property(
+            String name,
+            String serializedName,
+            List<String> alternateNames,
+            TypeMirror type,
+            String getter,
+            String setter) {}
+
+    private record Model(TypeElement type, List<Property> properties, boolean constructorBinding) {}
+
+    private record Adapter(Model model, String packageName, String simpleName) {
+        private String qualifiedName() {
+            return packageName + "." + simpleName;
+        }
+    }
+
+    private static final class ModelException extends Exception {
+        private final transient Element element;
+
+        private ModelException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -8,6 +8,7 @@ pluginManagement {
     }
 }
 
+include("processor")
 include("common")
 include("fabric")
 include("neoforge")